@@ -0,0 +1,103 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.trie.DefaultGraphemeTrie;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Many threads each building a matcher over the default trie for every short message, as a busy
+ * server would. The synchronized benchmarks stand in for the old {@code static synchronized}
+ * getters, for comparison.
+ */
+@Fork(value = 3)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(64)
+@State(Scope.Benchmark)
+public class DefaultTrieContentionBenchmark {
+  public static final String MESSAGE =
+      "Just landed in Lisbon 🇵🇹 and the weather is perfect ☀️ Can't wait to try the pastéis 😋🙌";
+
+  private static DefaultGraphemeTrie synchronizedDefaultTrie;
+
+  private static synchronized DefaultGraphemeTrie getSynchronizedDefaultTrie() {
+    if (synchronizedDefaultTrie == null)
+      synchronizedDefaultTrie = Graphemes.getDefaultTrie();
+    return synchronizedDefaultTrie;
+  }
+
+  @Setup
+  public void setupDefaultTrieContentionBenchmark() {
+    Graphemes.preloadAsync().join();
+    getSynchronizedDefaultTrie();
+  }
+
+  @Benchmark
+  public DefaultGraphemeTrie getDefaultTrie() {
+    return Graphemes.getDefaultTrie();
+  }
+
+  @Benchmark
+  public DefaultGraphemeTrie synchronizedGetDefaultTrie() {
+    return getSynchronizedDefaultTrie();
+  }
+
+  @Benchmark
+  public void matcherPerMessage(Blackhole blackhole) {
+    blackhole.consume(count(new GraphemeMatcher(Graphemes.getDefaultTrie(), MESSAGE)));
+  }
+
+  @Benchmark
+  public void synchronizedMatcherPerMessage(Blackhole blackhole) {
+    blackhole.consume(count(new GraphemeMatcher(getSynchronizedDefaultTrie(), MESSAGE)));
+  }
+
+  /**
+   * The default constructor, which uses {@link Graphemes#getDefaultArrayTrie()}
+   */
+  @Benchmark
+  public void defaultMatcherPerMessage(Blackhole blackhole) {
+    blackhole.consume(count(new GraphemeMatcher(MESSAGE)));
+  }
+
+  private static int count(GraphemeMatcher m) {
+    int count = 0;
+    while (m.find())
+      count = count + 1;
+    return count;
+  }
+}
@@ -37,8 +37,16 @@ import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Resources;
+import com.sigpwned.emoji4j.core.GraphemeMatchBuffer;
 import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.Utf8GraphemeMatcher;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.DawgGraphemeTrie;
 import com.sigpwned.emoji4j.core.trie.DefaultGraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.DfaGraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.GraphemeTrieBuilder;
+import com.sigpwned.emoji4j.core.trie.Utf8GraphemeTrie;
 import com.sigpwned.emoji4j.core.util.Graphemes;
 
 @Fork(value = 3) /* jvmArgsAppend = "-XX:+PrintCompilation" */
@@ -54,8 +62,30 @@ public class GraphemeMatcherBenchmark {
    */
   public String tweets;
 
+  public char[] tweetChars;
+
+  public byte[] tweetBytes;
+
   public DefaultGraphemeTrie trie;
 
+  public ArrayGraphemeTrie arrayTrie;
+
+  public Utf8GraphemeTrie utf8Trie;
+
+  public DfaGraphemeTrie dfaTrie;
+
+  public DawgGraphemeTrie dawgTrie;
+
+  /**
+   * Reused across invocations, as a columnar writer would
+   */
+  public GraphemeMatchBuffer matches;
+
+  /**
+   * Only the canonical code point sequences of emoji, and no pictographs
+   */
+  public ArrayGraphemeTrie emojiTrie;
+
   @Setup
   public void setupGraphemeMatcherBenchmark() throws IOException {
     try (
@@ -63,7 +93,25 @@ public class GraphemeMatcherBenchmark {
       tweets = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
     }
 
+    tweetChars = tweets.toCharArray();
+
+    tweetBytes = tweets.getBytes(StandardCharsets.UTF_8);
+
     trie = DefaultGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    arrayTrie = ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    utf8Trie = Utf8GraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    dfaTrie = DfaGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    dawgTrie = DawgGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    matches = new GraphemeMatchBuffer();
+
+    emojiTrie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(GraphemeTrieBuilder.type(GraphemeEntry.EMOJI_TYPE)).withAlternatives(false)
+        .buildArrayTrie();
   }
 
   /*
@@ -85,4 +133,100 @@ public class GraphemeMatcherBenchmark {
     }
     blackhole.consume(count);
   }
+
+  @Benchmark
+  public void arrayTrieTweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(arrayTrie, tweets);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void dfaTrieTweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(dfaTrie, tweets);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void dawgTrieTweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(dawgTrie, tweets);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void emojiTrieTweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(emojiTrie, tweets);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void charArrayTweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(trie, tweetChars, 0, tweetChars.length);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void decodeUtf8Tweets(Blackhole blackhole) {
+    int count = 0;
+    GraphemeMatcher m = new GraphemeMatcher(trie, new String(tweetBytes, StandardCharsets.UTF_8));
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void utf8Tweets(Blackhole blackhole) {
+    int count = 0;
+    Utf8GraphemeMatcher m = new Utf8GraphemeMatcher(utf8Trie, tweetBytes, 0, tweetBytes.length);
+    while (m.find()) {
+      count = count + 1;
+    }
+    blackhole.consume(count);
+  }
+
+  @Benchmark
+  public void resultsTweets(Blackhole blackhole) {
+    new GraphemeMatcher(trie, tweets).results().forEach(mr -> {
+      blackhole.consume(mr.start());
+      blackhole.consume(mr.end());
+      blackhole.consume(mr.grapheme());
+    });
+  }
+
+  @Benchmark
+  public void forEachMatchTweets(Blackhole blackhole) {
+    new GraphemeMatcher(trie, tweets).forEachMatch((start, end, grapheme) -> {
+      blackhole.consume(start);
+      blackhole.consume(end);
+      blackhole.consume(grapheme);
+    });
+  }
+
+  @Benchmark
+  public void findAllTweets(Blackhole blackhole) {
+    matches.clear();
+    new GraphemeMatcher(trie, tweets).findAll(matches);
+    blackhole.consume(matches.getMatches());
+    blackhole.consume(matches.size());
+  }
 }
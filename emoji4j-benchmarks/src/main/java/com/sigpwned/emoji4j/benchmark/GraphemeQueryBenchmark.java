@@ -0,0 +1,118 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Compares the dedicated query methods of {@link Graphemes} to answering the same questions with
+ * {@link GraphemeMatcher#find()}, one tweet at a time.
+ */
+@Fork(value = 3)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class GraphemeQueryBenchmark {
+  /**
+   * The individual tweets of the same 1MB sample that {@link GraphemeMatcherBenchmark} uses
+   */
+  public String[] tweets;
+
+  @Setup
+  public void setupGraphemeQueryBenchmark() throws IOException {
+    try (
+        InputStream in = new GZIPInputStream(Resources.getResource("tweets.txt.gz").openStream())) {
+      tweets = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8).split("\n");
+    }
+
+    Graphemes.getDefaultArrayTrie();
+  }
+
+  @Benchmark
+  public void findContainsAny(Blackhole blackhole) {
+    for (String tweet : tweets)
+      blackhole.consume(new GraphemeMatcher(tweet).find());
+  }
+
+  @Benchmark
+  public void containsAny(Blackhole blackhole) {
+    for (String tweet : tweets)
+      blackhole.consume(Graphemes.containsAny(tweet));
+  }
+
+  @Benchmark
+  public void findCount(Blackhole blackhole) {
+    for (String tweet : tweets) {
+      int count = 0;
+      GraphemeMatcher m = new GraphemeMatcher(tweet);
+      while (m.find()) {
+        count = count + 1;
+      }
+      blackhole.consume(count);
+    }
+  }
+
+  @Benchmark
+  public void resultsCount(Blackhole blackhole) {
+    for (String tweet : tweets)
+      blackhole.consume(new GraphemeMatcher(tweet).results().count());
+  }
+
+  @Benchmark
+  public void count(Blackhole blackhole) {
+    for (String tweet : tweets)
+      blackhole.consume(Graphemes.count(tweet));
+  }
+
+  @Benchmark
+  public void findIndexOfFirst(Blackhole blackhole) {
+    for (String tweet : tweets) {
+      GraphemeMatcher m = new GraphemeMatcher(tweet);
+      blackhole.consume(m.find() ? m.start() : -1);
+    }
+  }
+
+  @Benchmark
+  public void indexOfFirst(Blackhole blackhole) {
+    for (String tweet : tweets)
+      blackhole.consume(Graphemes.indexOfFirst(tweet));
+  }
+}
@@ -0,0 +1,104 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-benchmarks
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeSegmenter;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Compares splitting text into grapheme clusters and tagging the emoji among them in one pass with
+ * {@link GraphemeSegmenter} to running a {@link BreakIterator} and a {@link GraphemeMatcher} side
+ * by side.
+ */
+@Fork(value = 3)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class GraphemeSegmenterBenchmark {
+  /**
+   * The same 1MB sample that {@link GraphemeMatcherBenchmark} uses
+   */
+  public String tweets;
+
+  @Setup
+  public void setupGraphemeSegmenterBenchmark() throws IOException {
+    try (
+        InputStream in = new GZIPInputStream(Resources.getResource("tweets.txt.gz").openStream())) {
+      tweets = new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+
+    Graphemes.getDefaultArrayTrie();
+
+    GraphemeSegmenter.preload();
+  }
+
+  @Benchmark
+  public void breakIteratorTweets(Blackhole blackhole) {
+    int clusters = 0, tagged = 0;
+    BreakIterator bi = BreakIterator.getCharacterInstance();
+    bi.setText(tweets);
+    GraphemeMatcher m = new GraphemeMatcher(tweets);
+    boolean found = m.find();
+    for (int end = bi.next(); end != BreakIterator.DONE; end = bi.next()) {
+      clusters = clusters + 1;
+      while (found && m.end() < end)
+        found = m.find();
+      if (found && m.end() == end)
+        tagged = tagged + 1;
+    }
+    blackhole.consume(clusters);
+    blackhole.consume(tagged);
+  }
+
+  @Benchmark
+  public void segmenterTweets(Blackhole blackhole) {
+    int clusters = 0, tagged = 0;
+    GraphemeSegmenter s = new GraphemeSegmenter(tweets);
+    while (s.next()) {
+      clusters = clusters + 1;
+      if (s.grapheme() != null)
+        tagged = tagged + 1;
+    }
+    blackhole.consume(clusters);
+    blackhole.consume(tagged);
+  }
+}
@@ -31,16 +31,40 @@ public class Grapheme {
     EMOJI, PICTOGRAPHIC;
   }
 
+  /**
+   * The id of graphemes that are not part of the default grapheme data, e.g., custom graphemes
+   */
+  public static final int NO_ID = -1;
+
+  private final int id;
   private final Type type;
   private final int[] coordinates;
   private final String name;
 
   public Grapheme(Type type, int[] coordinates, String name) {
+    this(NO_ID, type, coordinates, name);
+  }
+
+  public Grapheme(int id, Type type, int[] coordinates, String name) {
+    if (id < NO_ID)
+      throw new IllegalArgumentException("id must be non-negative or NO_ID");
+    this.id = id;
     this.type = type;
     this.coordinates = coordinates;
     this.name = name;
   }
 
+  /**
+   * Returns this grapheme's dense id, which is its index in the default grapheme data, or
+   * {@link #NO_ID} if it is not part of the default grapheme data. Ids run from 0 to
+   * {@link GraphemeTable#size()} - 1 of the default {@link GraphemeTable}, so they can index
+   * directly into arrays, e.g., to count how often each grapheme appears. Ids are stable for a
+   * given Unicode version, but may change between versions.
+   */
+  public int getId() {
+    return id;
+  }
+
   /**
    * @return the type
    */
@@ -0,0 +1,276 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * The properties of each code point that the extended grapheme cluster rules of
+ * <a href="https://www.unicode.org/reports/tr29/">UAX #29</a> depend on, packed into one byte per
+ * code point: the Grapheme_Cluster_Break value in the low four bits, plus flags for
+ * Extended_Pictographic and the Indic_Conjunct_Break values.
+ * 
+ * <p>
+ * These are derived from the general categories of {@link Character}, plus the exceptions listed
+ * in UAX #29 and the Unicode Character Database, so they are only as current as the JVM's Unicode
+ * data. Extended_Pictographic is every code point that appears in the default grapheme data and has
+ * no other break property, so unassigned code points are never Extended_Pictographic here.
+ */
+/* default */ final class GraphemeBreakProperty {
+  private GraphemeBreakProperty() {}
+
+  public static final int OTHER = 0;
+  public static final int CR = 1;
+  public static final int LF = 2;
+  public static final int CONTROL = 3;
+  public static final int EXTEND = 4;
+  public static final int ZWJ = 5;
+  public static final int REGIONAL_INDICATOR = 6;
+  public static final int PREPEND = 7;
+  public static final int SPACING_MARK = 8;
+  public static final int L = 9;
+  public static final int V = 10;
+  public static final int T = 11;
+  public static final int LV = 12;
+  public static final int LVT = 13;
+
+  /**
+   * The mask of the Grapheme_Cluster_Break value
+   */
+  public static final int BREAK_MASK = 0x0F;
+
+  public static final int EXTENDED_PICTOGRAPHIC = 0x10;
+
+  public static final int INCB_CONSONANT = 0x20;
+
+  public static final int INCB_LINKER = 0x40;
+
+  public static final int INCB_EXTEND = 0x80;
+
+  /**
+   * The code points with Other_Grapheme_Extend, plus the emoji modifiers and tags, which are Extend
+   * even though they are not marks. Each pair is an inclusive range.
+   */
+  private static final int[] EXTEND_RANGES = {
+      0x09BE, 0x09BE, 0x09D7, 0x09D7, 0x0B3E, 0x0B3E, 0x0B57, 0x0B57, 0x0BBE, 0x0BBE,
+      0x0BD7, 0x0BD7, 0x0CC2, 0x0CC2, 0x0CD5, 0x0CD6, 0x0D3E, 0x0D3E, 0x0D57, 0x0D57,
+      0x0DCF, 0x0DCF, 0x0DDF, 0x0DDF, 0x1B35, 0x1B35, 0x200C, 0x200C, 0x302E, 0x302F,
+      0xFF9E, 0xFF9F, 0x1133E, 0x1133E, 0x11357, 0x11357, 0x114B0, 0x114B0, 0x114BD, 0x114BD,
+      0x115AF, 0x115AF, 0x11930, 0x11930, 0x1D165, 0x1D165, 0x1D16E, 0x1D172, 0x1F3FB, 0x1F3FF,
+      0xE0020, 0xE007F};
+
+  /**
+   * The code points with Prepended_Concatenation_Mark, or with Indic_Syllabic_Category
+   * Consonant_Preceding_Repha or Consonant_Prefixed
+   */
+  private static final int[] PREPEND_RANGES = {
+      0x0600, 0x0605, 0x06DD, 0x06DD, 0x070F, 0x070F, 0x0890, 0x0891, 0x08E2, 0x08E2,
+      0x0D4E, 0x0D4E, 0x110BD, 0x110BD, 0x110CD, 0x110CD, 0x111C2, 0x111C3, 0x1193F, 0x1193F,
+      0x11941, 0x11941, 0x11A3A, 0x11A3A, 0x11A84, 0x11A89, 0x11D46, 0x11D46, 0x11F02, 0x11F02};
+
+  /**
+   * The spacing marks that are not SpacingMark
+   */
+  private static final int[] NOT_SPACING_MARK_RANGES = {
+      0x102B, 0x102C, 0x1038, 0x1038, 0x1062, 0x1064, 0x1067, 0x106D, 0x1083, 0x1083,
+      0x1087, 0x108C, 0x108F, 0x108F, 0x109A, 0x109C, 0x1A61, 0x1A61, 0x1A63, 0x1A64,
+      0xAA7B, 0xAA7B, 0xAA7D, 0xAA7D, 0x11720, 0x11721};
+
+  /**
+   * The unassigned code points with Default_Ignorable_Code_Point, which are Control
+   */
+  private static final int[] UNASSIGNED_CONTROL_RANGES = {
+      0x2065, 0x2065, 0xFFF0, 0xFFF8, 0xE0000, 0xE0FFF};
+
+  /**
+   * The viramas that join consonants into conjuncts
+   */
+  private static final int[] INCB_LINKER_RANGES = {
+      0x094D, 0x094D, 0x09CD, 0x09CD, 0x0ACD, 0x0ACD, 0x0B4D, 0x0B4D, 0x0C4D, 0x0C4D,
+      0x0D4D, 0x0D4D};
+
+  /**
+   * The consonants of the scripts that have {@link #INCB_LINKER_RANGES linkers}
+   */
+  private static final int[] INCB_CONSONANT_RANGES = {
+      0x0915, 0x0939, 0x0958, 0x095F, 0x0978, 0x097F, 0x0995, 0x09A8, 0x09AA, 0x09B0,
+      0x09B2, 0x09B2, 0x09B6, 0x09B9, 0x09DC, 0x09DD, 0x09DF, 0x09DF, 0x09F0, 0x09F1,
+      0x0A95, 0x0AA8, 0x0AAA, 0x0AB0, 0x0AB2, 0x0AB3, 0x0AB5, 0x0AB9, 0x0AF9, 0x0AF9,
+      0x0B15, 0x0B28, 0x0B2A, 0x0B30, 0x0B32, 0x0B33, 0x0B35, 0x0B39, 0x0B5C, 0x0B5D,
+      0x0B5F, 0x0B5F, 0x0B71, 0x0B71, 0x0C15, 0x0C28, 0x0C2A, 0x0C39, 0x0C58, 0x0C5A,
+      0x0D15, 0x0D3A};
+
+  private static final int PAGE_LENGTH = 256;
+
+  private static final class TableHolder {
+    static final GraphemeBreakProperty.Table INSTANCE = newTable();
+  }
+
+  /**
+   * A two-level lookup table of properties. Blocks of 256 code points with the same properties
+   * share a page, so the table is small.
+   */
+  private static final class Table {
+    final int[] pages;
+    final byte[] properties;
+
+    public Table(int[] pages, byte[] properties) {
+      this.pages = pages;
+      this.properties = properties;
+    }
+  }
+
+  private static Table newTable() {
+    BitSet pictographic = new BitSet(Character.MAX_CODE_POINT + 1);
+    for (Grapheme g : Graphemes.getDefaultGraphemeTable().getGraphemes())
+      for (int cp : g.getCoordinates())
+        pictographic.set(cp);
+
+    int[] pages = new int[(Character.MAX_CODE_POINT + 1) / PAGE_LENGTH];
+    Map<ByteBuffer, Integer> offsets = new HashMap<>();
+    byte[] properties = new byte[16 * PAGE_LENGTH];
+    int length = 0;
+    for (int block = 0; block < pages.length; block++) {
+      byte[] page = new byte[PAGE_LENGTH];
+      for (int i = 0; isComputed(block) && i < PAGE_LENGTH; i++) {
+        int cp = block * PAGE_LENGTH + i;
+        int property = compute(cp);
+        if (property == OTHER && cp >= 0x80 && pictographic.get(cp))
+          property = EXTENDED_PICTOGRAPHIC;
+        page[i] = (byte) property;
+      }
+      Integer offset = offsets.get(ByteBuffer.wrap(page));
+      if (offset == null) {
+        offset = length;
+        offsets.put(ByteBuffer.wrap(page), offset);
+        if (length + PAGE_LENGTH > properties.length)
+          properties = Arrays.copyOf(properties, 2 * properties.length);
+        System.arraycopy(page, 0, properties, length, PAGE_LENGTH);
+        length = length + PAGE_LENGTH;
+      }
+      pages[block] = offset;
+    }
+
+    return new Table(pages, Arrays.copyOf(properties, length));
+  }
+
+  /**
+   * @return the properties of the given code point, packed as described above
+   */
+  public static int of(int codePoint) {
+    Table table = TableHolder.INSTANCE;
+    return table.properties[table.pages[codePoint >>> 8] + (codePoint & 0xFF)] & 0xFF;
+  }
+
+  /**
+   * Preloads the table, which takes a moment to build
+   */
+  public static void preload() {
+    of(0);
+  }
+
+  /**
+   * @return {@code false} if every code point in the given block is a private use or unassigned
+   *         code point that has no properties, i.e., the block is in planes 4 through 13, 15, or
+   *         16, except for the tags and variation selectors at the start of plane 14
+   */
+  private static boolean isComputed(int block) {
+    int cp = block * PAGE_LENGTH;
+    return cp < 0x40000 || (cp >= 0xE0000 && cp < 0xE1000);
+  }
+
+  /**
+   * @return the properties of the given code point, except for Extended_Pictographic
+   */
+  private static int compute(int cp) {
+    int result = computeBreak(cp);
+    if (contains(INCB_LINKER_RANGES, cp))
+      result = result | INCB_LINKER;
+    else if (contains(INCB_CONSONANT_RANGES, cp))
+      result = result | INCB_CONSONANT;
+    else if (result == EXTEND || result == ZWJ)
+      result = result | INCB_EXTEND;
+    return result;
+  }
+
+  private static int computeBreak(int cp) {
+    if (cp == '\r')
+      return CR;
+    if (cp == '\n')
+      return LF;
+    if (cp == 0x200D)
+      return ZWJ;
+    if (cp >= 0x1F1E6 && cp <= 0x1F1FF)
+      return REGIONAL_INDICATOR;
+    if (contains(PREPEND_RANGES, cp))
+      return PREPEND;
+    if (contains(EXTEND_RANGES, cp))
+      return EXTEND;
+
+    if ((cp >= 0x1100 && cp <= 0x115F) || (cp >= 0xA960 && cp <= 0xA97C))
+      return L;
+    if ((cp >= 0x1160 && cp <= 0x11A7) || (cp >= 0xD7B0 && cp <= 0xD7C6))
+      return V;
+    if ((cp >= 0x11A8 && cp <= 0x11FF) || (cp >= 0xD7CB && cp <= 0xD7FB))
+      return T;
+    if (cp >= 0xAC00 && cp <= 0xD7A3)
+      return (cp - 0xAC00) % 28 == 0 ? LV : LVT;
+
+    switch (Character.getType(cp)) {
+      case Character.LINE_SEPARATOR:
+      case Character.PARAGRAPH_SEPARATOR:
+      case Character.CONTROL:
+      case Character.SURROGATE:
+      case Character.FORMAT:
+        return CONTROL;
+      case Character.NON_SPACING_MARK:
+      case Character.ENCLOSING_MARK:
+        return EXTEND;
+      case Character.COMBINING_SPACING_MARK:
+        return contains(NOT_SPACING_MARK_RANGES, cp) ? OTHER : SPACING_MARK;
+      case Character.UNASSIGNED:
+        return contains(UNASSIGNED_CONTROL_RANGES, cp) ? CONTROL : OTHER;
+      default:
+        return cp == 0x0E33 || cp == 0x0EB3 ? SPACING_MARK : OTHER;
+    }
+  }
+
+  /**
+   * @return {@code true} if the given sorted list of inclusive ranges contains the given code point
+   */
+  private static boolean contains(int[] ranges, int cp) {
+    int lo = 0, hi = ranges.length / 2 - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (cp < ranges[2 * mid])
+        hi = mid - 1;
+      else if (cp > ranges[2 * mid + 1])
+        lo = mid + 1;
+      else
+        return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,128 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, growable buffer of grapheme matches stored as flat {@code int} triples of start
+ * index, end index, and grapheme id, for handing matches to columnar writers without creating any
+ * objects per match. The buffer only grows, so once it is big enough for the largest document,
+ * filling it again allocates nothing. For example:
+ * 
+ * <pre>
+ * GraphemeMatchBuffer matches = new GraphemeMatchBuffer();
+ * for (String document : documents) {
+ *   matches.clear();
+ *   new GraphemeMatcher(document).findAll(matches);
+ *   for (int i = 0; i &lt; matches.size(); i++)
+ *     write(matches.start(i), matches.end(i), matches.id(i));
+ * }
+ * </pre>
+ * 
+ * @see GraphemeMatcher#findAll(GraphemeMatchBuffer)
+ * @see Grapheme#getId()
+ */
+public final class GraphemeMatchBuffer {
+  /**
+   * The number of ints per match
+   */
+  public static final int STRIDE = 3;
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] matches;
+  private int size;
+
+  public GraphemeMatchBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity the number of matches to make room for up front
+   */
+  public GraphemeMatchBuffer(int capacity) {
+    if (capacity < 0)
+      throw new IllegalArgumentException("capacity must not be negative");
+    this.matches = new int[STRIDE * capacity];
+  }
+
+  /* default */ void add(int start, int end, int id) {
+    int index = STRIDE * size;
+    if (index == matches.length)
+      matches = Arrays.copyOf(matches, Math.max(STRIDE * DEFAULT_CAPACITY, 2 * matches.length));
+    matches[index] = start;
+    matches[index + 1] = end;
+    matches[index + 2] = id;
+    size = size + 1;
+  }
+
+  /**
+   * Removes all matches, but keeps the storage for reuse
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @return the number of matches
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the (inclusive) start index of the given match
+   */
+  public int start(int match) {
+    return matches[index(match)];
+  }
+
+  /**
+   * @return the (exclusive) end index of the given match
+   */
+  public int end(int match) {
+    return matches[index(match) + 1];
+  }
+
+  /**
+   * @return the id of the grapheme of the given match, or {@link Grapheme#NO_ID} for a custom
+   *         grapheme
+   */
+  public int id(int match) {
+    return matches[index(match) + 2];
+  }
+
+  private int index(int match) {
+    if (match < 0 || match >= size)
+      throw new IndexOutOfBoundsException("no match " + match);
+    return STRIDE * match;
+  }
+
+  /**
+   * Returns the backing array, which holds the start, end, and id of match {@code i} at indexes
+   * {@code STRIDE * i}, {@code STRIDE * i + 1}, and {@code STRIDE * i + 2}. Only the first
+   * {@code STRIDE * size()} elements are valid. The buffer replaces this array when it grows, so
+   * get it again after each fill.
+   */
+  public int[] getMatches() {
+    return matches;
+  }
+}
@@ -0,0 +1,36 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+/**
+ * Receives grapheme matches as primitive values, so that matching can report each match without
+ * allocating anything.
+ * 
+ * @see GraphemeMatcher#forEachMatch(GraphemeMatchConsumer)
+ */
+@FunctionalInterface
+public interface GraphemeMatchConsumer {
+  /**
+   * @param start the (inclusive) start index of the match
+   * @param end the (exclusive) end index of the match
+   * @param grapheme the {@link Grapheme} of the match
+   */
+  public void accept(int start, int end, Grapheme grapheme);
+}
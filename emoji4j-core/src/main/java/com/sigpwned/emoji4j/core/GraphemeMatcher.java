@@ -19,6 +19,7 @@
  */
 package com.sigpwned.emoji4j.core;
 
+import java.nio.CharBuffer;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
@@ -28,6 +29,8 @@ import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+import com.sigpwned.emoji4j.core.util.CharScanner;
 import com.sigpwned.emoji4j.core.util.Graphemes;
 
 /**
@@ -38,15 +41,48 @@ import com.sigpwned.emoji4j.core.util.Graphemes;
 public class GraphemeMatcher implements GraphemeMatchResult {
   private static final String NOT_MATCHED = "not matched";
 
+  /**
+   * The fewest remaining chars for which we bother with vectorized scanning
+   */
+  private static final int VECTORIZED_SCAN_THRESHOLD = 64;
+
   /**
    * The trie containing all possible emoji graphemes.
    */
   private final GraphemeTrie trie;
 
   /**
-   * The text being matched
+   * The chars that could start a grapheme in {@link #trie}, or {@code null} if the trie does not
+   * track them
+   */
+  private final CharBitSet startChars;
+
+  /**
+   * Scans for {@link #startChars} many chars at a time when possible. Created lazily, and only used
+   * when a vectorized implementation is available.
+   */
+  private CharScanner scanner;
+
+  /**
+   * The text being matched, or {@code null} if we are matching a region of {@link #buffer}
+   */
+  private CharSequence text;
+
+  /**
+   * The array whose region is being matched, or {@code null} if we are matching {@link #text}
+   */
+  private char[] buffer;
+
+  /**
+   * The index in {@link #buffer} where the region being matched starts. All indexes this matcher
+   * reports are relative to this offset.
    */
-  private final String text;
+  private int bufferOffset;
+
+  /**
+   * The length of the text being matched
+   */
+  private int length;
 
   /**
    * The current search index.
@@ -76,16 +112,43 @@ public class GraphemeMatcher implements GraphemeMatchResult {
   private Grapheme grapheme;
 
   public GraphemeMatcher(String text) {
-    this(Graphemes.getDefaultTrie(), text);
+    this((CharSequence) text);
+  }
+
+  public GraphemeMatcher(CharSequence text) {
+    this(Graphemes.getDefaultArrayTrie(), text);
   }
 
   public GraphemeMatcher(GraphemeTrie trie, String text) {
+    this(trie, (CharSequence) text);
+  }
+
+  public GraphemeMatcher(GraphemeTrie trie, CharSequence text) {
     if (trie == null)
       throw new NullPointerException();
-    if (text == null)
+    this.trie = trie;
+    this.startChars = trie.getChildStartChars();
+    reset(text);
+  }
+
+  /**
+   * Matches the given region of the given array without copying it. All indexes this matcher
+   * reports are relative to the start of the region.
+   */
+  public GraphemeMatcher(char[] buffer, int offset, int length) {
+    this(Graphemes.getDefaultArrayTrie(), buffer, offset, length);
+  }
+
+  /**
+   * Matches the given region of the given array without copying it. All indexes this matcher
+   * reports are relative to the start of the region.
+   */
+  public GraphemeMatcher(GraphemeTrie trie, char[] buffer, int offset, int length) {
+    if (trie == null)
       throw new NullPointerException();
     this.trie = trie;
-    this.text = text;
+    this.startChars = trie.getChildStartChars();
+    reset(buffer, offset, length);
   }
 
   public boolean find() {
@@ -93,71 +156,201 @@ public class GraphemeMatcher implements GraphemeMatchResult {
     start = end = -1;
     grapheme = null;
 
-    while (index < text.length()) {
-      // Is there a grapheme starting at index?
-      int cp0 = text().codePointAt(index);
-      int cc0 = Character.charCount(cp0);
-
-      GraphemeTrie t = trie().getChild(cp0);
-      if (t != null) {
-        // There is the beginnings of a match at index! Graphemes may be multiple code points long,
-        // and this code point could start a grapheme. Let's see if we find a full grapheme here.
-        int index0 = index;
-        int offset = cc0;
-
-        if (t.getGrapheme() != null) {
-          // We have a grapheme! We always want to take the longest grapheme possible -- e.g.,
-          // including skin tones -- so keep searching.
-          matched = true;
-          start = index;
-          end = index + offset;
-          grapheme = t.getGrapheme();
-        }
+    final int length = this.length;
+    while (index < length) {
+      // Skip over any text that cannot possibly start a grapheme
+      index = nextCandidate(index);
+      if (index >= length)
+        break;
 
-        while (index + offset < text.length()) {
-          int cpi = text().codePointAt(index + offset);
+      // Is there a grapheme starting at index? We always want to take the longest grapheme
+      // possible -- e.g., including skin tones -- so keep searching after the first one.
+      int cp0 = codePointAt(index);
+      int matchEnd = walkEnd(index, cp0, false);
+      if (matchEnd != -1) {
+        // If we did find a match, then resume our search right after the match.
+        matched = true;
+        start = index;
+        end = matchEnd;
+        grapheme = walkNode(index, matchEnd).getGrapheme();
+        index = end;
+        return true;
+      }
 
-          t = t.getChild(cpi);
-          if (t == null) {
-            // The next code point is not the next step in a possibly longer grapheme.
-            break;
-          }
+      // If we did not match, then we need to resume our search at the following code point. We are
+      // not Boyer-Moore smart, at least yet.
+      // https://en.wikipedia.org/wiki/Boyer%E2%80%93Moore_string-search_algorithm
+      index = index + Character.charCount(cp0);
+    }
 
-          int cci = Character.charCount(cpi);
+    return false;
+  }
 
-          offset = offset + cci;
+  /**
+   * Walks the trie along the text starting with the given code point at the given index. This only
+   * finds where the grapheme ends. Use {@link #walkNode(int, int)} to get the grapheme itself.
+   * 
+   * @param first if {@code true}, then stop at the first grapheme found, which is not necessarily
+   *        the longest
+   * @return the (exclusive) end index of the longest grapheme starting at the given index, or of
+   *         the first one if {@code first} is {@code true}, or -1 if there is none
+   */
+  private int walkEnd(int index, int cp0, boolean first) {
+    GraphemeTrie t = trie().getChild(cp0);
+    if (t == null)
+      return -1;
+
+    // There is the beginnings of a match at index! Graphemes may be multiple code points long, and
+    // this code point could start a grapheme. Let's see if we find a full grapheme here.
+    final int length = this.length;
+    int result = -1;
+    int offset = Character.charCount(cp0);
+    while (true) {
+      if (t.getGrapheme() != null) {
+        result = index + offset;
+        if (first)
+          break;
+      }
 
-          if (t.getGrapheme() != null) {
-            // We found a longer grapheme! Store it instead.
-            matched = true;
-            start = index;
-            end = index + offset;
-            grapheme = t.getGrapheme();
-          }
-        }
+      if (index + offset >= length)
+        break;
+
+      int cpi = codePointAt(index + offset);
+      t = t.getChild(cpi);
+      if (t == null) {
+        // The next code point is not the next step in a possibly longer grapheme.
+        break;
+      }
+
+      offset = offset + Character.charCount(cpi);
+    }
+
+    return result;
+  }
+
+  /**
+   * Walks the trie along the text from the given start index to the given end index, which must be
+   * the end of a grapheme that {@link #walkEnd(int, int, boolean)} found. Graphemes are only a few
+   * code points long, so walking them again is cheap.
+   * 
+   * @return the trie node of the grapheme between the given indexes
+   */
+  private GraphemeTrie walkNode(int start, int end) {
+    GraphemeTrie t = trie();
+    int index = start;
+    while (index < end) {
+      int cpi = codePointAt(index);
+      t = t.getChild(cpi);
+      index = index + Character.charCount(cpi);
+    }
+    return t;
+  }
+
+  /**
+   * Returns {@code true} if there is at least one grapheme in the remaining text, i.e., if
+   * {@link #find()} would return {@code true}. This stops at the first grapheme it sees, so it is
+   * cheaper than {@link #find()}. This does not change the state of this matcher.
+   */
+  public boolean containsAny() {
+    return indexOfFirst() != -1;
+  }
+
+  /**
+   * Returns the (inclusive) start index of the first grapheme in the remaining text, i.e., what
+   * {@link #start()} would return after {@link #find()}, or -1 if there is none. This does not look
+   * for the end of the grapheme, so it is cheaper than {@link #find()}. This does not change the
+   * state of this matcher.
+   */
+  public int indexOfFirst() {
+    final int length = this.length;
+    int index = this.index;
+    while (index < length) {
+      index = nextCandidate(index);
+      if (index >= length)
+        break;
+      int cp0 = codePointAt(index);
+      if (walkEnd(index, cp0, true) != -1)
+        return index;
+      index = index + Character.charCount(cp0);
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the number of graphemes in the remaining text, i.e., how many more times
+   * {@link #find()} would return {@code true}, without reporting them. This does not change the
+   * state of this matcher.
+   */
+  public int count() {
+    final int length = this.length;
+    int index = this.index;
+    int result = 0;
+    while (index < length) {
+      index = nextCandidate(index);
+      if (index >= length)
+        break;
+      int cp0 = codePointAt(index);
+      int matchEnd = walkEnd(index, cp0, false);
+      if (matchEnd != -1) {
+        result = result + 1;
+        index = matchEnd;
+      } else {
+        index = index + Character.charCount(cp0);
+      }
+    }
+    return result;
+  }
 
-        if (matched()) {
-          // If we did find a match, then resume our search right after the match.
-          index = end;
-          return true;
+  /**
+   * Returns the index of the first char at or after the given index that could start a grapheme, or
+   * the length of the text if there is no such char. This only reads chars, so it is much cheaper
+   * than decoding code points and probing the trie for each one.
+   */
+  private int nextCandidate(int index) {
+    if (startChars == null)
+      return index;
+
+    final int length = this.length;
+
+    if (length - index >= VECTORIZED_SCAN_THRESHOLD && CharScanner.isVectorized()) {
+      if (scanner == null)
+        scanner = CharScanner.newInstance(startChars);
+      while (index < length) {
+        int candidate;
+        if (buffer != null)
+          candidate = scanner.indexOf(buffer, bufferOffset + index, bufferOffset + length)
+              - bufferOffset;
+        else
+          candidate = scanner.indexOf(text, index, length);
+        if (candidate < length && candidate > index && Character.isLowSurrogate(charAt(candidate))
+            && Character.isHighSurrogate(charAt(candidate - 1))) {
+          // This is the second half of a surrogate pair whose first half is not a candidate.
+          index = candidate + 1;
         } else {
-          // If we did not match, then we need to resume our search at the following code point, not
-          // wherever index happens to point right now. We are not Boyer-Moore smart, at least yet.
-          // https://en.wikipedia.org/wiki/Boyer%E2%80%93Moore_string-search_algorithm
-          index = index0;
+          return candidate;
         }
       }
+      return index;
+    }
 
-      index = index + cc0;
+    while (index < length) {
+      char ch = charAt(index);
+      if (startChars.contains(ch))
+        break;
+      index = index + 1;
+
+      // Never stop in the middle of a surrogate pair. We only ever consider whole code points.
+      if (Character.isHighSurrogate(ch) && index < length && Character.isLowSurrogate(charAt(index)))
+        index = index + 1;
     }
 
-    return false;
+    return index;
   }
 
   public boolean matches() {
     if (!find())
       return false;
-    if (start() == 0 && end() == text.length())
+    if (start() == 0 && end() == length)
       return true;
     matched = false;
     start = end = -1;
@@ -204,19 +397,55 @@ public class GraphemeMatcher implements GraphemeMatchResult {
 
     int position = 0;
     while (find()) {
-      result.append(text().substring(position, start()));
+      append(result, position, start());
       result.append(replacer.apply(this));
       position = end();
       if (firstOnly)
         break;
     }
 
-    result.append(text().substring(position, text.length()));
+    append(result, position, length);
 
     return result.toString();
 
   }
 
+  /**
+   * Begins the matching process over at the start of the given text. This allows one matcher to be
+   * reused for many texts, e.g., one matcher per worker thread.
+   */
+  public void reset(CharSequence newText) {
+    if (newText == null)
+      throw new NullPointerException();
+    if (newText instanceof CharBuffer && ((CharBuffer) newText).hasArray()) {
+      // Match heap buffers through their backing array, which is much faster than charAt
+      CharBuffer cb = (CharBuffer) newText;
+      reset(cb.array(), cb.arrayOffset() + cb.position(), cb.remaining());
+      return;
+    }
+    this.text = newText;
+    this.buffer = null;
+    this.bufferOffset = 0;
+    this.length = newText.length();
+    reset();
+  }
+
+  /**
+   * Begins the matching process over at the start of the given region of the given array, which is
+   * not copied. All indexes this matcher reports are relative to the start of the region.
+   */
+  public void reset(char[] newBuffer, int offset, int length) {
+    if (newBuffer == null)
+      throw new NullPointerException();
+    if (offset < 0 || length < 0 || offset > newBuffer.length - length)
+      throw new IndexOutOfBoundsException();
+    this.text = null;
+    this.buffer = newBuffer;
+    this.bufferOffset = offset;
+    this.length = length;
+    reset();
+  }
+
   /**
    * Begins the matching process over at the start of the current text
    */
@@ -256,7 +485,7 @@ public class GraphemeMatcher implements GraphemeMatchResult {
    */
   @Override
   public String group() {
-    return text().substring(start(), end());
+    return substring(start(), end());
   }
 
   /**
@@ -317,12 +546,50 @@ public class GraphemeMatcher implements GraphemeMatchResult {
         new GraphemeMatchResultIterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
   }
 
+  /**
+   * Reports each of the remaining grapheme matches to the given action, in order. Unlike
+   * {@link #results()}, this does not allocate anything per match. The matcher is NOT
+   * {@link #reset()} first.
+   */
+  public void forEachMatch(GraphemeMatchConsumer action) {
+    if (action == null)
+      throw new NullPointerException();
+    while (find())
+      action.accept(start, end, grapheme);
+  }
+
+  /**
+   * Appends each of the remaining grapheme matches to the given buffer, in order, as primitive
+   * start, end, and grapheme id values. Nothing is allocated per match, and the buffer only grows
+   * if it runs out of room. The buffer is NOT cleared, and the matcher is NOT {@link #reset()} first.
+   * 
+   * @return the number of matches appended
+   */
+  public int findAll(GraphemeMatchBuffer matches) {
+    if (matches == null)
+      throw new NullPointerException();
+    int count = 0;
+    while (find()) {
+      matches.add(start, end, grapheme.getId());
+      count = count + 1;
+    }
+    return count;
+  }
+
+  /**
+   * @return an immutable snapshot of the current match. If the current text is a {@link String},
+   *         then the text of the match is only extracted if and when
+   *         {@link GraphemeMatchResult#group()} is called. Other texts may change later, so in that
+   *         case the text of the match is extracted immediately.
+   * @throws IllegalStateException if there is no current match
+   */
   public GraphemeMatchResult toMatchResult() {
     if (!matched())
       throw new IllegalStateException(NOT_MATCHED);
+    final String thetext = text instanceof String ? (String) text : group();
+    final int theoffset = text instanceof String ? 0 : start();
     final int thestart = start();
     final int theend = end();
-    final String thegroup = group();
     final Grapheme thegrapheme = grapheme();
     return new GraphemeMatchResult() {
       @Override
@@ -337,7 +604,7 @@ public class GraphemeMatcher implements GraphemeMatchResult {
 
       @Override
       public String group() {
-        return thegroup;
+        return thetext.substring(thestart - theoffset, theend - theoffset);
       }
 
       @Override
@@ -358,10 +625,42 @@ public class GraphemeMatcher implements GraphemeMatchResult {
     return trie;
   }
 
-  /**
-   * @return the text
+  /*
+   * The following methods read the text being matched. Each input kind gets its own call site, so
+   * the calls stay monomorphic and are easy for the JIT to inline.
    */
-  private String text() {
-    return text;
+
+  private char charAt(int index) {
+    if (buffer != null)
+      return buffer[bufferOffset + index];
+    else if (text instanceof String)
+      return ((String) text).charAt(index);
+    else
+      return text.charAt(index);
+  }
+
+  private int codePointAt(int index) {
+    if (buffer != null)
+      return Character.codePointAt(buffer, bufferOffset + index, bufferOffset + length);
+    else if (text instanceof String)
+      return ((String) text).codePointAt(index);
+    else
+      return Character.codePointAt(text, index);
+  }
+
+  private String substring(int start, int end) {
+    if (buffer != null)
+      return new String(buffer, bufferOffset + start, end - start);
+    else if (text instanceof String)
+      return ((String) text).substring(start, end);
+    else
+      return text.subSequence(start, end).toString();
+  }
+
+  private void append(StringBuilder result, int start, int end) {
+    if (buffer != null)
+      result.append(buffer, bufferOffset + start, end - start);
+    else
+      result.append(text, start, end);
   }
 }
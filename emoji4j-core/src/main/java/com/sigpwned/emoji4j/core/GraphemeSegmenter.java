@@ -0,0 +1,292 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.BREAK_MASK;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.CONTROL;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.CR;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.EXTEND;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.EXTENDED_PICTOGRAPHIC;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.INCB_CONSONANT;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.INCB_EXTEND;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.INCB_LINKER;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.L;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.LF;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.LV;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.LVT;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.PREPEND;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.REGIONAL_INDICATOR;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.SPACING_MARK;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.T;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.V;
+import static com.sigpwned.emoji4j.core.GraphemeBreakProperty.ZWJ;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Splits text into extended grapheme clusters, i.e., user-perceived characters, according to the
+ * rules of <a href="https://www.unicode.org/reports/tr29/">UAX #29</a>, and tags each cluster that
+ * is exactly one of the graphemes in a {@link GraphemeTrie}. This takes one pass over the text, and
+ * walks the trie along with the break rules, so there is no need to run a
+ * {@link java.text.BreakIterator} and a {@link GraphemeMatcher} separately. For example:
+ * 
+ * <pre>
+ * GraphemeSegmenter s = new GraphemeSegmenter(text);
+ * while (s.next()) {
+ *   if (s.grapheme() != null)
+ *     System.out.println("Found grapheme " + s.grapheme().getName());
+ *   else
+ *     System.out.println("Found text " + text.substring(s.start(), s.end()));
+ * }
+ * </pre>
+ * 
+ * <p>
+ * Clusters are reported as primitive start and end indexes, so segmenting allocates nothing per
+ * cluster. Every cluster of a non-empty text is reported, so the end of each cluster is the start
+ * of the next. The break properties come from {@link Character}, so clusters are only as current
+ * as the JVM's Unicode data, except for emoji, which come from the grapheme data.
+ * 
+ * @see java.text.BreakIterator
+ */
+public class GraphemeSegmenter {
+  private static final String NO_CLUSTER = "no cluster";
+
+  /**
+   * The states of the emoji ZWJ sequence rule, GB11
+   */
+  private static final int EMOJI_NONE = 0;
+  private static final int EMOJI_PICTOGRAPHIC = 1;
+  private static final int EMOJI_ZWJ = 2;
+
+  /**
+   * The states of the Indic conjunct rule, GB9c
+   */
+  private static final int CONJUNCT_NONE = 0;
+  private static final int CONJUNCT_CONSONANT = 1;
+  private static final int CONJUNCT_LINKED = 2;
+
+  private final GraphemeTrie trie;
+
+  private CharSequence text;
+
+  private int length;
+
+  /**
+   * The index where the next cluster starts
+   */
+  private int index;
+
+  /**
+   * The (inclusive) start index of the current cluster, or -1 if there is none
+   */
+  private int start;
+
+  /**
+   * The (exclusive) end index of the current cluster, or -1 if there is none
+   */
+  private int end;
+
+  /**
+   * The grapheme that the current cluster is exactly, or {@code null} if there is none
+   */
+  private Grapheme grapheme;
+
+  public GraphemeSegmenter(CharSequence text) {
+    this(Graphemes.getDefaultArrayTrie(), text);
+  }
+
+  public GraphemeSegmenter(GraphemeTrie trie, CharSequence text) {
+    if (trie == null)
+      throw new NullPointerException();
+    if (text == null)
+      throw new NullPointerException();
+    this.trie = trie;
+    reset(text);
+  }
+
+  /**
+   * Builds the break property table ahead of time, since the first segmenter otherwise has to wait
+   * for it
+   */
+  public static void preload() {
+    GraphemeBreakProperty.preload();
+  }
+
+  /**
+   * Moves to the next cluster.
+   * 
+   * @return {@code true} if there is a next cluster, or {@code false} if the text is exhausted
+   */
+  public boolean next() {
+    final int length = this.length;
+    if (index >= length) {
+      start = end = -1;
+      grapheme = null;
+      return false;
+    }
+
+    start = index;
+
+    int cp = Character.codePointAt(text, index);
+    int property = GraphemeBreakProperty.of(cp);
+    GraphemeTrie t = trie.getChild(cp);
+    index = index + Character.charCount(cp);
+
+    int regionalIndicators = (property & BREAK_MASK) == REGIONAL_INDICATOR ? 1 : 0;
+    int emoji = (property & EXTENDED_PICTOGRAPHIC) != 0 ? EMOJI_PICTOGRAPHIC : EMOJI_NONE;
+    int conjunct = (property & INCB_CONSONANT) != 0 ? CONJUNCT_CONSONANT : CONJUNCT_NONE;
+    while (index < length) {
+      int nextCp = Character.codePointAt(text, index);
+      int nextProperty = GraphemeBreakProperty.of(nextCp);
+      if (isBoundary(property, nextProperty, regionalIndicators, emoji, conjunct))
+        break;
+
+      int next = nextProperty & BREAK_MASK;
+      regionalIndicators = next == REGIONAL_INDICATOR ? regionalIndicators + 1 : 0;
+
+      if ((nextProperty & EXTENDED_PICTOGRAPHIC) != 0)
+        emoji = EMOJI_PICTOGRAPHIC;
+      else if (emoji == EMOJI_PICTOGRAPHIC && next == ZWJ)
+        emoji = EMOJI_ZWJ;
+      else if (emoji != EMOJI_PICTOGRAPHIC || next != EXTEND)
+        emoji = EMOJI_NONE;
+
+      if ((nextProperty & INCB_CONSONANT) != 0)
+        conjunct = CONJUNCT_CONSONANT;
+      else if (conjunct != CONJUNCT_NONE && (nextProperty & INCB_LINKER) != 0)
+        conjunct = CONJUNCT_LINKED;
+      else if ((nextProperty & INCB_EXTEND) == 0)
+        conjunct = CONJUNCT_NONE;
+
+      if (t != null)
+        t = t.getChild(nextCp);
+      index = index + Character.charCount(nextCp);
+      property = nextProperty;
+    }
+
+    end = index;
+    grapheme = t != null ? t.getGrapheme() : null;
+
+    return true;
+  }
+
+  /**
+   * @return {@code true} if there is a cluster boundary between code points with the given
+   *         properties, given the state of the current cluster
+   */
+  private static boolean isBoundary(int property, int nextProperty, int regionalIndicators,
+      int emoji, int conjunct) {
+    int previous = property & BREAK_MASK;
+    int next = nextProperty & BREAK_MASK;
+
+    // GB3, GB4, GB5
+    if (previous == CR && next == LF)
+      return false;
+    if (previous == CONTROL || previous == CR || previous == LF)
+      return true;
+    if (next == CONTROL || next == CR || next == LF)
+      return true;
+
+    // GB6, GB7, GB8
+    if (previous == L && (next == L || next == V || next == LV || next == LVT))
+      return false;
+    if ((previous == LV || previous == V) && (next == V || next == T))
+      return false;
+    if ((previous == LVT || previous == T) && next == T)
+      return false;
+
+    // GB9, GB9a, GB9b
+    if (next == EXTEND || next == ZWJ || next == SPACING_MARK || previous == PREPEND)
+      return false;
+
+    // GB9c
+    if (conjunct == CONJUNCT_LINKED && (nextProperty & INCB_CONSONANT) != 0)
+      return false;
+
+    // GB11
+    if (emoji == EMOJI_ZWJ && (nextProperty & EXTENDED_PICTOGRAPHIC) != 0)
+      return false;
+
+    // GB12, GB13
+    if (next == REGIONAL_INDICATOR && regionalIndicators % 2 == 1)
+      return false;
+
+    // GB999
+    return true;
+  }
+
+  /**
+   * @return the (inclusive) start index of the current cluster
+   * @throws IllegalStateException if there is no current cluster
+   */
+  public int start() {
+    if (start == -1)
+      throw new IllegalStateException(NO_CLUSTER);
+    return start;
+  }
+
+  /**
+   * @return the (exclusive) end index of the current cluster
+   * @throws IllegalStateException if there is no current cluster
+   */
+  public int end() {
+    if (end == -1)
+      throw new IllegalStateException(NO_CLUSTER);
+    return end;
+  }
+
+  /**
+   * @return the grapheme that the current cluster is exactly, or {@code null} if it is not a
+   *         grapheme, e.g., because it is ordinary text
+   * @throws IllegalStateException if there is no current cluster
+   */
+  public Grapheme grapheme() {
+    if (start == -1)
+      throw new IllegalStateException(NO_CLUSTER);
+    return grapheme;
+  }
+
+  /**
+   * @return the text of the current cluster
+   * @throws IllegalStateException if there is no current cluster
+   */
+  public String group() {
+    return text.subSequence(start(), end()).toString();
+  }
+
+  /**
+   * Segments the given text from the beginning
+   */
+  public void reset(CharSequence newText) {
+    if (newText == null)
+      throw new NullPointerException();
+    this.text = newText;
+    this.length = newText.length();
+    reset();
+  }
+
+  /**
+   * Segments the current text from the beginning again
+   */
+  public void reset() {
+    index = 0;
+    start = end = -1;
+    grapheme = null;
+  }
+}
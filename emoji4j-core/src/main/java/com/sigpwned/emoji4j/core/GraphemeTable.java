@@ -0,0 +1,84 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static java.util.Collections.unmodifiableList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps dense grapheme ids back to graphemes. Every grapheme in the default grapheme data has an id
+ * from 0 to {@link #size()} - 1, so callers that need to count or tag graphemes can index plain
+ * arrays by {@link Grapheme#getId()} instead of hashing {@link Grapheme} objects. For example:
+ * 
+ * <pre>
+ * GraphemeTable table = Graphemes.getDefaultGraphemeTable();
+ * long[] counts = new long[table.size()];
+ * Graphemes.forEachMatch(text, (start, end, grapheme) -&gt; counts[grapheme.getId()]++);
+ * </pre>
+ * 
+ * <p>
+ * Custom graphemes have no id, so they do not appear in this table.
+ */
+public final class GraphemeTable {
+  /**
+   * @throws IllegalArgumentException if the id of each grapheme is not its index in the given list
+   */
+  public static GraphemeTable of(List<Grapheme> graphemes) {
+    return new GraphemeTable(graphemes.toArray(new Grapheme[0]));
+  }
+
+  private final Grapheme[] graphemes;
+
+  private GraphemeTable(Grapheme[] graphemes) {
+    for (int i = 0; i < graphemes.length; i++) {
+      if (graphemes[i] == null)
+        throw new NullPointerException();
+      if (graphemes[i].getId() != i)
+        throw new IllegalArgumentException(
+            "grapheme at index " + i + " has id " + graphemes[i].getId());
+    }
+    this.graphemes = graphemes;
+  }
+
+  /**
+   * @return the number of graphemes, which is one more than the largest id
+   */
+  public int size() {
+    return graphemes.length;
+  }
+
+  /**
+   * @return the grapheme with the given id
+   * @throws IndexOutOfBoundsException if there is no grapheme with the given id
+   */
+  public Grapheme get(int id) {
+    if (id < 0 || id >= graphemes.length)
+      throw new IndexOutOfBoundsException("no grapheme with id " + id);
+    return graphemes[id];
+  }
+
+  /**
+   * @return all graphemes, in id order
+   */
+  public List<Grapheme> getGraphemes() {
+    return unmodifiableList(Arrays.asList(graphemes));
+  }
+}
@@ -19,6 +19,8 @@
  */
 package com.sigpwned.emoji4j.core;
 
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+
 public interface GraphemeTrie {
   GraphemeTrie getChild(int codePoint);
 
@@ -26,4 +28,14 @@ public interface GraphemeTrie {
    * @return the grapheme
    */
   Grapheme getGrapheme();
+
+  /**
+   * Returns the set of UTF-16 chars that begin the code point of at least one of this node's
+   * children, or {@code null} if this node does not track them. Any char outside this set cannot
+   * start a grapheme here, so matchers can skip it without decoding code points or visiting the
+   * trie. The default implementation returns {@code null}.
+   */
+  default CharBitSet getChildStartChars() {
+    return null;
+  }
 }
@@ -0,0 +1,314 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+import com.sigpwned.emoji4j.core.util.CharScanner;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Finds emoji in text that is too large to hold in memory, e.g., multi-gigabyte log files. This
+ * works just like {@link GraphemeMatcher}, and finds exactly the same matches, except that it reads
+ * its text incrementally from a {@link Reader}, and all indexes are absolute {@code long} char
+ * offsets from the start of the stream.
+ * 
+ * <p>
+ * Text is read into a sliding window. The window only grows beyond its initial size when a single
+ * grapheme candidate is longer than the window, so its size is bounded by the longest sequence in
+ * the trie. Graphemes that straddle the boundary between two reads are matched just the same as
+ * any other.
+ * 
+ * <p>
+ * The {@link #group()} of a match is only available until the next call to {@link #find()}.
+ */
+public class StreamingGraphemeMatcher implements Closeable {
+  private static final String NOT_MATCHED = "not matched";
+
+  /**
+   * The default initial size of the sliding window, in chars
+   */
+  /* default */ static final int DEFAULT_WINDOW_SIZE = 8192;
+
+  /**
+   * The trie containing all possible emoji graphemes.
+   */
+  private final GraphemeTrie trie;
+
+  /**
+   * Finds chars that could start a grapheme in {@link #trie}, or {@code null} if the trie does not
+   * track them
+   */
+  private final CharScanner scanner;
+
+  /**
+   * The text being matched
+   */
+  private final Reader in;
+
+  /**
+   * The sliding window. Chars from index 0 (inclusive) to {@link #limit} (exclusive) are valid.
+   */
+  private char[] window;
+
+  /**
+   * The number of valid chars in {@link #window}
+   */
+  private int limit;
+
+  /**
+   * The absolute offset of the first char in {@link #window}
+   */
+  private long base;
+
+  /**
+   * The current search index in {@link #window}
+   */
+  private int index;
+
+  /**
+   * {@code true} if we have read all of {@link #in}, or {@code false} otherwise
+   */
+  private boolean eof;
+
+  /**
+   * The current match state. If {@code true}, then this matcher's internal state reflects the
+   * current match. Otherwise, there is no current match.
+   */
+  private boolean matched;
+
+  /**
+   * The (inclusive) absolute start offset of the current match, or -1 if there is no current match.
+   */
+  private long start;
+
+  /**
+   * The (exclusive) absolute end offset of the current match, or -1 if there is no current match.
+   */
+  private long end;
+
+  /**
+   * If {@link #matched} is {@code true}, then this is the contents of the current match. Otherwise,
+   * it should be {@code null}.
+   */
+  private Grapheme grapheme;
+
+  public StreamingGraphemeMatcher(Reader in) {
+    this(Graphemes.getDefaultArrayTrie(), in);
+  }
+
+  public StreamingGraphemeMatcher(GraphemeTrie trie, Reader in) {
+    this(trie, in, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Matches the bytes of the given channel, decoded with the given charset. Malformed input is
+   * replaced, just as {@link String#String(byte[], Charset)} does. Indexes are still char offsets.
+   */
+  public StreamingGraphemeMatcher(ReadableByteChannel channel, Charset charset) {
+    this(Graphemes.getDefaultArrayTrie(), channel, charset);
+  }
+
+  /**
+   * Matches the bytes of the given channel, decoded with the given charset. Malformed input is
+   * replaced, just as {@link String#String(byte[], Charset)} does. Indexes are still char offsets.
+   */
+  public StreamingGraphemeMatcher(GraphemeTrie trie, ReadableByteChannel channel,
+      Charset charset) {
+    this(trie, Channels.newReader(channel,
+        charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE),
+        -1));
+  }
+
+  /* default */ StreamingGraphemeMatcher(GraphemeTrie trie, Reader in, int windowSize) {
+    if (trie == null)
+      throw new NullPointerException();
+    if (in == null)
+      throw new NullPointerException();
+    if (windowSize < 1)
+      throw new IllegalArgumentException("windowSize must be positive");
+    CharBitSet startChars = trie.getChildStartChars();
+    this.trie = trie;
+    this.scanner = startChars != null ? CharScanner.newInstance(startChars) : null;
+    this.in = in;
+    this.window = new char[windowSize];
+    this.start = this.end = -1;
+  }
+
+  public boolean find() throws IOException {
+    matched = false;
+    start = end = -1;
+    grapheme = null;
+
+    while (available(1)) {
+      // Skip over any text that cannot possibly start a grapheme. Low surrogates never start one,
+      // so this never stops in the middle of a surrogate pair.
+      if (scanner != null) {
+        index = scanner.indexOf(window, index, limit);
+        if (index == limit)
+          continue;
+      }
+
+      // Is there a grapheme starting at index?
+      int cp0 = codePointAt(0);
+      int cc0 = Character.charCount(cp0);
+
+      GraphemeTrie t = trie.getChild(cp0);
+      if (t != null) {
+        // There is the beginnings of a match at index! Take the longest grapheme possible, just like
+        // GraphemeMatcher does.
+        int offset = cc0;
+        int length = -1;
+        Grapheme g = null;
+
+        if (t.getGrapheme() != null) {
+          length = offset;
+          g = t.getGrapheme();
+        }
+
+        while (available(offset + 1)) {
+          int cpi = codePointAt(offset);
+
+          t = t.getChild(cpi);
+          if (t == null)
+            break;
+
+          offset = offset + Character.charCount(cpi);
+
+          if (t.getGrapheme() != null) {
+            length = offset;
+            g = t.getGrapheme();
+          }
+        }
+
+        if (length != -1) {
+          matched = true;
+          start = base + index;
+          end = start + length;
+          grapheme = g;
+          index = index + length;
+          return true;
+        }
+      }
+
+      index = index + cc0;
+    }
+
+    return false;
+  }
+
+  /**
+   * @return the (inclusive) absolute start offset of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  public long start() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return start;
+  }
+
+  /**
+   * @return the (exclusive) absolute end offset of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  public long end() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return end;
+  }
+
+  /**
+   * @return the text of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  public String group() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    int length = (int) (end - start);
+    return new String(window, index - length, length);
+  }
+
+  /**
+   * @return the {@link Grapheme} of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  public Grapheme grapheme() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return grapheme;
+  }
+
+  /**
+   * Closes the underlying reader
+   */
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Returns the code point at the given offset from the search index. If the text ends with a lone
+   * high surrogate, then that surrogate is returned, just like {@link String#codePointAt(int)}.
+   */
+  private int codePointAt(int offset) throws IOException {
+    available(offset + 2);
+    return Character.codePointAt(window, index + offset, limit);
+  }
+
+  /**
+   * Makes sure that at least the given number of chars are in the window after the search index,
+   * reading more text if needed. This may slide the window, so indexes into the window are only
+   * stable relative to {@link #index}.
+   * 
+   * @return {@code true} if the chars are available, or {@code false} if the text ends first
+   */
+  private boolean available(int count) throws IOException {
+    while (limit - index < count) {
+      if (eof)
+        return false;
+      if (limit == window.length) {
+        if (index > 0) {
+          // Slide the window forward, dropping everything before the search index
+          System.arraycopy(window, index, window, 0, limit - index);
+          base = base + index;
+          limit = limit - index;
+          index = 0;
+        } else {
+          // The window is full of one candidate. This is rare, and bounded by the trie's depth.
+          window = Arrays.copyOf(window, 2 * window.length);
+        }
+      }
+      int n = in.read(window, limit, window.length - limit);
+      if (n == -1)
+        eof = true;
+      else
+        limit = limit + n;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,310 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import com.sigpwned.emoji4j.core.trie.Utf8GraphemeTrie;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Finds emoji in UTF-8 text without decoding it. This works just like {@link GraphemeMatcher}, except
+ * that its input is bytes and all indexes are byte offsets. Malformed UTF-8 is tolerated, but never
+ * matches.
+ * 
+ * @see GraphemeMatcher
+ */
+public class Utf8GraphemeMatcher implements GraphemeMatchResult {
+  private static final String NOT_MATCHED = "not matched";
+
+  /**
+   * The trie containing all possible emoji graphemes.
+   */
+  private final Utf8GraphemeTrie trie;
+
+  /**
+   * The array whose region is being matched, or {@code null} if we are matching {@link #buffer}
+   */
+  private byte[] array;
+
+  /**
+   * The buffer being matched, or {@code null} if we are matching {@link #array}
+   */
+  private ByteBuffer buffer;
+
+  /**
+   * The index in {@link #array} or {@link #buffer} where the bytes being matched start. All indexes
+   * this matcher reports are relative to this offset.
+   */
+  private int offset;
+
+  /**
+   * The number of bytes being matched
+   */
+  private int length;
+
+  /**
+   * The current search index.
+   */
+  private int index;
+
+  /**
+   * The current match state. If {@code true}, then this matcher's internal state reflects the
+   * current match. Otherwise, there is no current match.
+   */
+  private boolean matched;
+
+  /**
+   * The (inclusive) start index of the current match, or -1 if there is no current match.
+   */
+  private int start;
+
+  /**
+   * The (exclusive) end index of the current match, or -1 if there is no current match.
+   */
+  private int end;
+
+  /**
+   * If {@link #matched} is {@code true}, then this is the contents of the current match. Otherwise,
+   * it should be {@code null}.
+   */
+  private Grapheme grapheme;
+
+  public Utf8GraphemeMatcher(byte[] array, int offset, int length) {
+    this(Graphemes.getDefaultUtf8Trie(), array, offset, length);
+  }
+
+  public Utf8GraphemeMatcher(Utf8GraphemeTrie trie, byte[] array, int offset, int length) {
+    if (trie == null)
+      throw new NullPointerException();
+    this.trie = trie;
+    reset(array, offset, length);
+  }
+
+  /**
+   * Matches the remaining bytes of the given buffer, i.e., from its position to its limit. The
+   * buffer's position is not changed.
+   */
+  public Utf8GraphemeMatcher(ByteBuffer buffer) {
+    this(Graphemes.getDefaultUtf8Trie(), buffer);
+  }
+
+  /**
+   * Matches the remaining bytes of the given buffer, i.e., from its position to its limit. The
+   * buffer's position is not changed.
+   */
+  public Utf8GraphemeMatcher(Utf8GraphemeTrie trie, ByteBuffer buffer) {
+    if (trie == null)
+      throw new NullPointerException();
+    this.trie = trie;
+    reset(buffer);
+  }
+
+  public boolean find() {
+    matched = false;
+    start = end = -1;
+    grapheme = null;
+
+    final int length = this.length;
+    while (index < length) {
+      // Skip over any bytes that cannot possibly start a grapheme
+      index = nextCandidate(index);
+      if (index >= length)
+        break;
+
+      // Is there a grapheme starting at index?
+      int node = trie.getChild(Utf8GraphemeTrie.ROOT, byteAt(index));
+
+      // We always want to take the longest grapheme possible -- e.g., including skin tones -- so
+      // keep searching until the trie runs out.
+      int offset = 1;
+      while (true) {
+        Grapheme g = trie.getGrapheme(node);
+        if (g != null) {
+          matched = true;
+          start = index;
+          end = index + offset;
+          grapheme = g;
+        }
+
+        if (index + offset >= length)
+          break;
+
+        node = trie.getChild(node, byteAt(index + offset));
+        if (node == Utf8GraphemeTrie.NO_CHILD)
+          break;
+
+        offset = offset + 1;
+      }
+
+      if (matched) {
+        // If we did find a match, then resume our search right after the match.
+        index = end;
+        return true;
+      }
+
+      // Graphemes only start on leading bytes, so we can safely resume at the very next byte.
+      index = index + 1;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the index of the first byte at or after the given index that could start a grapheme, or
+   * the length of the input if there is no such byte.
+   */
+  private int nextCandidate(int index) {
+    final Utf8GraphemeTrie trie = this.trie;
+    final int length = this.length;
+    if (array != null) {
+      final byte[] array = this.array;
+      final int offset = this.offset;
+      while (index < length
+          && trie.getChild(Utf8GraphemeTrie.ROOT, array[offset + index]) == Utf8GraphemeTrie.NO_CHILD)
+        index = index + 1;
+    } else {
+      final ByteBuffer buffer = this.buffer;
+      final int offset = this.offset;
+      while (index < length && trie.getChild(Utf8GraphemeTrie.ROOT,
+          buffer.get(offset + index)) == Utf8GraphemeTrie.NO_CHILD)
+        index = index + 1;
+    }
+    return index;
+  }
+
+  /**
+   * Reports each of the remaining grapheme matches to the given action, in order, as byte offsets.
+   * Nothing is allocated per match. The matcher is NOT {@link #reset()} first.
+   */
+  public void forEachMatch(GraphemeMatchConsumer action) {
+    if (action == null)
+      throw new NullPointerException();
+    while (find())
+      action.accept(start, end, grapheme);
+  }
+
+  /**
+   * Begins the matching process over at the start of the given region of the given array, which is
+   * not copied. All indexes this matcher reports are relative to the start of the region.
+   */
+  public void reset(byte[] newArray, int offset, int length) {
+    if (newArray == null)
+      throw new NullPointerException();
+    if (offset < 0 || length < 0 || offset > newArray.length - length)
+      throw new IndexOutOfBoundsException();
+    this.array = newArray;
+    this.buffer = null;
+    this.offset = offset;
+    this.length = length;
+    reset();
+  }
+
+  /**
+   * Begins the matching process over at the position of the given buffer. All indexes this matcher
+   * reports are relative to that position. The buffer's position is not changed.
+   */
+  public void reset(ByteBuffer newBuffer) {
+    if (newBuffer == null)
+      throw new NullPointerException();
+    if (newBuffer.hasArray()) {
+      // Match heap buffers through their backing array, which is faster than get
+      reset(newBuffer.array(), newBuffer.arrayOffset() + newBuffer.position(),
+          newBuffer.remaining());
+      return;
+    }
+    this.array = null;
+    this.buffer = newBuffer;
+    this.offset = newBuffer.position();
+    this.length = newBuffer.remaining();
+    reset();
+  }
+
+  /**
+   * Begins the matching process over at the start of the current bytes
+   */
+  public void reset() {
+    index = 0;
+
+    matched = false;
+    start = end = -1;
+    grapheme = null;
+  }
+
+  /**
+   * @return the (inclusive) start byte offset of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  @Override
+  public int start() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return start;
+  }
+
+  /**
+   * @return the (exclusive) end byte offset of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  @Override
+  public int end() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return end;
+  }
+
+  /**
+   * @return the text of the current match, decoded from UTF-8
+   * @throws IllegalStateException if there is no current match
+   */
+  @Override
+  public String group() {
+    int start = start();
+    int end = end();
+    if (array != null)
+      return new String(array, offset + start, end - start, StandardCharsets.UTF_8);
+    byte[] bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++)
+      bytes[i] = buffer.get(offset + start + i);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the {@link Grapheme} of the current match
+   * @throws IllegalStateException if there is no current match
+   */
+  @Override
+  public Grapheme grapheme() {
+    if (!matched)
+      throw new IllegalStateException(NOT_MATCHED);
+    return grapheme;
+  }
+
+  /**
+   * Each input kind gets its own call site, so the calls stay monomorphic and are easy for the JIT
+   * to inline.
+   */
+  private byte byteAt(int index) {
+    if (array != null)
+      return array[offset + index];
+    else
+      return buffer.get(offset + index);
+  }
+}
@@ -32,4 +32,8 @@ public class Emoji extends Grapheme {
   public Emoji(int[] coordinates, String name) {
     super(Type.EMOJI, coordinates, name);
   }
+
+  public Emoji(int id, int[] coordinates, String name) {
+    super(id, Type.EMOJI, coordinates, name);
+  }
 }
@@ -32,4 +32,8 @@ public class Pictographic extends Grapheme {
   public Pictographic(int[] coordinates, String name) {
     super(Type.PICTOGRAPHIC, coordinates, name);
   }
+
+  public Pictographic(int id, int[] coordinates, String name) {
+    super(id, Type.PICTOGRAPHIC, coordinates, name);
+  }
 }
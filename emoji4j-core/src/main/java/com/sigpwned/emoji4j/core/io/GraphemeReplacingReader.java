@@ -0,0 +1,145 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.io;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.function.Function;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * A reader that replaces each grapheme in the underlying reader with a computed string. The text
+ * read is exactly what {@link GraphemeMatcher#replaceAll(Function)} would produce for the whole
+ * text, but memory use is constant.
+ * 
+ * @see GraphemeReplacingWriter
+ */
+public class GraphemeReplacingReader extends FilterReader {
+  /**
+   * The most chars we read from the underlying reader at a time
+   */
+  private static final int CHUNK_LENGTH = 8192;
+
+  /**
+   * Receives the replaced text from {@link #replacer}, for us to hand out
+   */
+  private final StringWriter replaced;
+
+  private final GraphemeReplacingWriter replacer;
+
+  private final char[] chunk;
+
+  /**
+   * The index of the next char to hand out from {@link #replaced}
+   */
+  private int index;
+
+  private boolean eof;
+
+  public GraphemeReplacingReader(Reader in, Function<Grapheme, String> replacer) {
+    this(Graphemes.getDefaultArrayTrie(), in, replacer);
+  }
+
+  public GraphemeReplacingReader(GraphemeTrie trie, Reader in,
+      Function<Grapheme, String> replacer) {
+    super(in);
+    this.replaced = new StringWriter();
+    this.replacer = new GraphemeReplacingWriter(trie, replaced, replacer);
+    this.chunk = new char[CHUNK_LENGTH];
+  }
+
+  @Override
+  public int read() throws IOException {
+    char[] buf = new char[1];
+    return read(buf, 0, 1) == -1 ? -1 : buf[0];
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off > cbuf.length - len)
+      throw new IndexOutOfBoundsException();
+    if (len == 0)
+      return 0;
+
+    StringBuffer buffer = replaced.getBuffer();
+    while (index == buffer.length()) {
+      if (eof)
+        return -1;
+
+      // We have handed out everything we have, so start over with the next chunk
+      buffer.setLength(0);
+      index = 0;
+
+      int n = in.read(chunk, 0, chunk.length);
+      if (n == -1) {
+        replacer.finish();
+        eof = true;
+      } else {
+        replacer.write(chunk, 0, n);
+      }
+    }
+
+    int n = Math.min(len, buffer.length() - index);
+    buffer.getChars(index, index + n, cbuf, off);
+    index = index + n;
+
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n < 0L)
+      throw new IllegalArgumentException("skip value is negative");
+    char[] buf = new char[(int) Math.min(n, CHUNK_LENGTH)];
+    long result = 0L;
+    while (result < n) {
+      int count = read(buf, 0, (int) Math.min(n - result, buf.length));
+      if (count == -1)
+        break;
+      result = result + count;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    return index < replaced.getBuffer().length();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    throw new IOException("mark not supported");
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("reset not supported");
+  }
+}
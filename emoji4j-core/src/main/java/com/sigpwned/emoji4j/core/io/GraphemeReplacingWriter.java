@@ -0,0 +1,254 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.io;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.function.Function;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+import com.sigpwned.emoji4j.core.util.CharScanner;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * A writer that replaces each grapheme written to it with a computed string before passing the text
+ * along to the underlying writer. The output is exactly what
+ * {@link GraphemeMatcher#replaceAll(Function)} would produce for the whole text, but memory use is
+ * constant.
+ * 
+ * <p>
+ * Text is passed along as soon as it is decided. Only a short tail that could still turn out to be
+ * the start of a longer grapheme is held back until more text arrives, so graphemes split across
+ * writes are replaced just the same. Note that {@link #flush()} does not force out that tail, since
+ * doing so could split a grapheme. Call {@link #finish()} or {@link #close()} at the end of the text.
+ */
+public class GraphemeReplacingWriter extends FilterWriter {
+  /**
+   * The most chars we take from one write at a time, so that large writes do not need large buffers
+   */
+  private static final int CHUNK_LENGTH = 8192;
+
+  /**
+   * The trie containing all possible emoji graphemes.
+   */
+  private final GraphemeTrie trie;
+
+  /**
+   * Finds chars that could start a grapheme in {@link #trie}, or {@code null} if the trie does not
+   * track them
+   */
+  private final CharScanner scanner;
+
+  private final Function<Grapheme, String> replacer;
+
+  /**
+   * The text that has been written but not yet passed along
+   */
+  private char[] pending;
+
+  /**
+   * The number of valid chars in {@link #pending}
+   */
+  private int length;
+
+  private boolean finished;
+
+  public GraphemeReplacingWriter(Writer out, Function<Grapheme, String> replacer) {
+    this(Graphemes.getDefaultArrayTrie(), out, replacer);
+  }
+
+  public GraphemeReplacingWriter(GraphemeTrie trie, Writer out,
+      Function<Grapheme, String> replacer) {
+    super(out);
+    if (trie == null)
+      throw new NullPointerException();
+    if (replacer == null)
+      throw new NullPointerException();
+    CharBitSet startChars = trie.getChildStartChars();
+    this.trie = trie;
+    this.scanner = startChars != null ? CharScanner.newInstance(startChars) : null;
+    this.replacer = replacer;
+    this.pending = new char[64];
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    write(new char[] {(char) c}, 0, 1);
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    ensureOpen();
+    if (off < 0 || len < 0 || off > str.length() - len)
+      throw new IndexOutOfBoundsException();
+    while (len > 0) {
+      int n = Math.min(len, CHUNK_LENGTH);
+      ensureCapacity(n);
+      str.getChars(off, off + n, pending, length);
+      length = length + n;
+      replace(false);
+      off = off + n;
+      len = len - n;
+    }
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    ensureOpen();
+    if (off < 0 || len < 0 || off > cbuf.length - len)
+      throw new IndexOutOfBoundsException();
+    while (len > 0) {
+      int n = Math.min(len, CHUNK_LENGTH);
+      ensureCapacity(n);
+      System.arraycopy(cbuf, off, pending, length, n);
+      length = length + n;
+      replace(false);
+      off = off + n;
+      len = len - n;
+    }
+  }
+
+  /**
+   * Replaces any graphemes in the held back text, passes it along, and flushes the underlying
+   * writer. Call this at the end of the text. No more text may be written afterwards, but the
+   * underlying writer is left open.
+   */
+  public void finish() throws IOException {
+    if (finished)
+      return;
+    replace(true);
+    finished = true;
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Passes along all the pending text that is decided, replacing graphemes as we go, and keeps the
+   * rest for later. If {@code eof} is {@code true}, then all the text is decided.
+   */
+  private void replace(boolean eof) throws IOException {
+    final char[] pending = this.pending;
+    final int length = this.length;
+
+    int index = 0;
+    int written = 0;
+    while (index < length) {
+      // Skip over any text that cannot possibly start a grapheme
+      if (scanner != null) {
+        index = scanner.indexOf(pending, index, length);
+        if (index == length)
+          break;
+      }
+
+      // We cannot decode a code point until we have both halves of it
+      if (!eof && isSplitSurrogatePair(index))
+        break;
+
+      int cp0 = Character.codePointAt(pending, index, length);
+      int cc0 = Character.charCount(cp0);
+
+      GraphemeTrie t = trie.getChild(cp0);
+      if (t != null) {
+        // Take the longest grapheme possible, just like GraphemeMatcher does. If we run out of text
+        // before the trie runs out, then we have to wait for more text to decide.
+        int offset = cc0;
+        int matchLength = -1;
+        Grapheme grapheme = null;
+
+        if (t.getGrapheme() != null) {
+          matchLength = offset;
+          grapheme = t.getGrapheme();
+        }
+
+        boolean undecided = false;
+        while (index + offset < length) {
+          if (!eof && isSplitSurrogatePair(index + offset)) {
+            undecided = true;
+            break;
+          }
+
+          int cpi = Character.codePointAt(pending, index + offset, length);
+
+          t = t.getChild(cpi);
+          if (t == null)
+            break;
+
+          offset = offset + Character.charCount(cpi);
+
+          if (t.getGrapheme() != null) {
+            matchLength = offset;
+            grapheme = t.getGrapheme();
+          }
+        }
+
+        if (!eof && index + offset == length && t != null)
+          undecided = true;
+
+        if (undecided)
+          break;
+
+        if (matchLength != -1) {
+          out.write(pending, written, index - written);
+          out.write(replacer.apply(grapheme));
+          index = index + matchLength;
+          written = index;
+          continue;
+        }
+      }
+
+      index = index + cc0;
+    }
+
+    out.write(pending, written, index - written);
+
+    System.arraycopy(pending, index, pending, 0, length - index);
+    this.length = length - index;
+  }
+
+  /**
+   * @return {@code true} if the given index holds the last pending char, and it is a high surrogate
+   *         whose low surrogate has not been written yet, or {@code false} otherwise
+   */
+  private boolean isSplitSurrogatePair(int index) {
+    return index == length - 1 && Character.isHighSurrogate(pending[index]);
+  }
+
+  private void ensureCapacity(int len) {
+    if (length + len > pending.length)
+      pending = Arrays.copyOf(pending, Math.max(length + len, 2 * pending.length));
+  }
+
+  private void ensureOpen() throws IOException {
+    if (finished)
+      throw new IOException("finished");
+  }
+}
@@ -40,8 +40,8 @@ package com.sigpwned.emoji4j.core.org.apache.commons.lang;
  */
 
 /*
- * This class was made generic, moved to a repackaged package, reformatted, and made package public.
- * It was originally copied from
+ * This class was made generic, moved to a repackaged package, reformatted, made package public, and
+ * given a keys() method. It was originally copied from
  * https://github.com/apache/commons-lang/blob/LANG_2_6/src/main/java/org/apache/commons/lang/
  * IntHashMap.java.
  */
@@ -180,6 +180,24 @@ public class IntHashMap<V> {
     return count;
   }
 
+  /**
+   * <p>
+   * Returns the keys in this hashtable, in no particular order.
+   * </p>
+   *
+   * @return a new array containing the keys in this hashtable.
+   */
+  public int[] keys() {
+    int[] result = new int[count];
+    int index = 0;
+    for (Entry<V> e : table) {
+      for (; e != null; e = e.next) {
+        result[index++] = e.hash;
+      }
+    }
+    return result;
+  }
+
   /**
    * <p>
    * Tests if this hashtable maps no keys to values.
@@ -0,0 +1,364 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static java.util.Collections.unmodifiableList;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+
+/**
+ * An immutable {@link GraphemeTrie} that packs all of its nodes into a few flat arrays. Nodes are
+ * numbered in breadth-first order, so the children of each node occupy a contiguous run of node
+ * numbers, sorted by code point. Looking up a child is therefore a binary search over a small slice
+ * of one {@code int[]} instead of a walk through hash buckets.
+ * 
+ * <p>
+ * The root is the exception. It has thousands of children, and it is consulted once for every code
+ * point of input, so its children are also indexed by a two-level lookup table keyed on code point.
+ */
+public class ArrayGraphemeTrie implements GraphemeTrie {
+  public static ArrayGraphemeTrie fromGraphemeData(GraphemeData gs) {
+    return fromMappings(FlatTrie.toMappings(gs));
+  }
+
+  /**
+   * Builds a trie from the given mappings of code point sequences to graphemes. If the same
+   * sequence appears more than once, then the last mapping wins.
+   */
+  /* default */ static ArrayGraphemeTrie fromMappings(List<Mapping> mappings) {
+    FlatTrie flat = FlatTrie.fromMappings(mappings);
+    return new ArrayGraphemeTrie(flat.labels, flat.children, flat.graphemes, flat.table);
+  }
+
+  /**
+   * Returns the default trie that was compiled into emoji4j-core at build time as
+   * {@code GeneratedGraphemeTable}. This involves no I/O or reflection, so it is the fastest way to
+   * get the default trie, and it needs no resource configuration in GraalVM native images. Returns
+   * {@code null} if emoji4j-core was built with {@code -Demoji4j.generateSources=false}, which
+   * compiles in a stub without a table instead.
+   */
+  public static ArrayGraphemeTrie fromGeneratedTable() {
+    if (!GeneratedGraphemeTable.AVAILABLE)
+      return null;
+
+    String[] types = GeneratedGraphemeTable.types();
+    String[] names = GeneratedGraphemeTable.names();
+    int[] coordinateOffsets = GeneratedGraphemeTable.coordinateOffsets();
+    int[] coordinates = GeneratedGraphemeTable.coordinates();
+
+    Grapheme[] table = new Grapheme[names.length];
+    for (int i = 0; i < table.length; i++)
+      table[i] = DefaultGraphemeTrie.newGrapheme(i, types[i],
+          Arrays.copyOfRange(coordinates, coordinateOffsets[i], coordinateOffsets[i + 1]),
+          names[i]);
+
+    return new ArrayGraphemeTrie(GeneratedGraphemeTable.codePoints(),
+        GeneratedGraphemeTable.children(), GeneratedGraphemeTable.graphemes(), table);
+  }
+
+  /**
+   * The magic number at the start of every serialized trie
+   */
+  public static final int MAGIC = 0x454D4A54;
+
+  /**
+   * The current serialization format version
+   */
+  public static final int VERSION = 2;
+
+  /**
+   * Reads a trie written by {@link #writeTo(OutputStream)}. The node arrays are bulk-copied
+   * straight into place, so this is much faster than building the trie from grapheme data. The
+   * emoji4j-maven-plugin writes the default trie in this format as graphemes.trie. The format is:
+   * 
+   * <pre>
+   * int      magic, always {@link #MAGIC}
+   * byte     format version, always {@link #VERSION}
+   * int      grapheme count, followed by that many graphemes:
+   *   int      id, or {@link Grapheme#NO_ID}
+   *   string   type, either "emoji" or "pictographic"
+   *   string   name
+   *   int      coordinate count, followed by that many int coordinates
+   * int      node count n
+   * int[n]   the code point on the edge leading into each node, or -1 for the root
+   * int[n+1] the index of the first child of each node, plus the node count
+   * int[n]   the index of the grapheme at each node, or -1 if there is none
+   * </pre>
+   * 
+   * <p>
+   * Each string is an unsigned short length followed by that many bytes of UTF-8.
+   */
+  public static ArrayGraphemeTrie readFrom(InputStream in) throws IOException {
+    ByteBuffer buf = ByteBuffer.wrap(readAllBytes(in));
+    try {
+      if (buf.getInt() != MAGIC)
+        throw new IOException("not a grapheme trie");
+      int version = buf.get() & 0xFF;
+      if (version != VERSION)
+        throw new IOException("unsupported grapheme trie version " + version);
+
+      Grapheme[] table = new Grapheme[buf.getInt()];
+      for (int i = 0; i < table.length; i++) {
+        int id = buf.getInt();
+        String type = readString(buf);
+        String name = readString(buf);
+        int[] coordinates = new int[buf.getInt()];
+        for (int j = 0; j < coordinates.length; j++)
+          coordinates[j] = buf.getInt();
+        table[i] = DefaultGraphemeTrie.newGrapheme(id, type, coordinates, name);
+      }
+
+      int count = buf.getInt();
+      if (buf.remaining() != 4 * (3 * count + 1))
+        throw new IOException("malformed grapheme trie");
+
+      IntBuffer ints = buf.asIntBuffer();
+      int[] codePoints = new int[count];
+      ints.get(codePoints);
+      int[] children = new int[count + 1];
+      ints.get(children);
+      int[] graphemes = new int[count];
+      ints.get(graphemes);
+
+      return new ArrayGraphemeTrie(codePoints, children, graphemes, table);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("malformed grapheme trie", e);
+    }
+  }
+
+  private static String readString(ByteBuffer buf) {
+    int length = buf.getShort() & 0xFFFF;
+    if (length > buf.remaining())
+      throw new BufferUnderflowException();
+    String result = new String(buf.array(), buf.position(), length, StandardCharsets.UTF_8);
+    buf.position(buf.position() + length);
+    return result;
+  }
+
+  private static byte[] readAllBytes(InputStream in) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buf = new byte[16384];
+    for (int n = in.read(buf); n != -1; n = in.read(buf))
+      result.write(buf, 0, n);
+    return result.toByteArray();
+  }
+
+  /**
+   * The code point on the edge leading into each node. The root has no such edge.
+   */
+  private final int[] codePoints;
+
+  /**
+   * The children of node {@code i} are nodes {@code children[i]} (inclusive) through
+   * {@code children[i+1]} (exclusive).
+   */
+  private final int[] children;
+
+  /**
+   * The index into {@link #table} of the grapheme at each node, or -1 if there is none.
+   */
+  private final int[] graphemes;
+
+  private final Grapheme[] table;
+
+  /**
+   * The offset into {@link #rootTable} of the page for each block of 256 code points. Blocks that
+   * contain no children of the root all share the first page, which is empty.
+   */
+  private final int[] rootPages;
+
+  /**
+   * The concatenated pages of the root lookup table. Each entry is the index of the root's child for
+   * the corresponding code point, or -1 if there is none.
+   */
+  private final int[] rootTable;
+
+  /**
+   * The first UTF-16 char of each of the root's children
+   */
+  private final CharBitSet rootStartChars;
+
+  /**
+   * One lightweight view per node, so that {@link #getChild(int)} never allocates.
+   */
+  private final Node[] nodes;
+
+  private ArrayGraphemeTrie(int[] codePoints, int[] children, int[] graphemes, Grapheme[] table) {
+    this.codePoints = codePoints;
+    this.children = children;
+    this.graphemes = graphemes;
+    this.table = table;
+
+    this.rootPages = new int[(Character.MAX_CODE_POINT >>> 8) + 1];
+    int pageCount = 1;
+    for (int child = children[0]; child < children[1]; child++) {
+      int block = codePoints[child] >>> 8;
+      if (rootPages[block] == 0)
+        rootPages[block] = 256 * pageCount++;
+    }
+    this.rootTable = new int[256 * pageCount];
+    Arrays.fill(rootTable, -1);
+    for (int child = children[0]; child < children[1]; child++)
+      rootTable[rootPages[codePoints[child] >>> 8] + (codePoints[child] & 0xFF)] = child;
+
+    this.rootStartChars =
+        CharBitSet.fromFirstChars(Arrays.copyOfRange(codePoints, children[0], children[1]));
+
+    this.nodes = new Node[codePoints.length];
+    for (int i = 0; i < nodes.length; i++)
+      nodes[i] = new Node(i);
+  }
+
+  @Override
+  public GraphemeTrie getChild(int codePoint) {
+    int block = codePoint >>> 8;
+    if (block >= rootPages.length)
+      return null;
+    int child = rootTable[rootPages[block] + (codePoint & 0xFF)];
+    return child != -1 ? nodes[child] : null;
+  }
+
+  @Override
+  public Grapheme getGrapheme() {
+    return nodes[0].getGrapheme();
+  }
+
+  @Override
+  public CharBitSet getChildStartChars() {
+    return rootStartChars;
+  }
+
+  /**
+   * @return the number of nodes in this trie, including the root
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * @return every grapheme in this trie, once each. For the default trie, the graphemes are in id
+   *         order.
+   */
+  public List<Grapheme> getGraphemes() {
+    return unmodifiableList(Arrays.asList(table));
+  }
+
+  /**
+   * @return the mappings from the code point sequence of each node with a grapheme to that
+   *         grapheme, using this trie's own {@link Grapheme} instances
+   */
+  /* default */ List<Mapping> toMappings() {
+    List<Mapping> result = new ArrayList<>();
+    toMappings(0, new int[16], 0, result);
+    return result;
+  }
+
+  private void toMappings(int node, int[] path, int depth, List<Mapping> result) {
+    if (graphemes[node] != -1)
+      result.add(new Mapping(Arrays.copyOf(path, depth), table[graphemes[node]]));
+    for (int child = children[node]; child < children[node + 1]; child++) {
+      if (depth == path.length)
+        path = Arrays.copyOf(path, 2 * path.length);
+      path[depth] = codePoints[child];
+      toMappings(child, path, depth + 1, result);
+    }
+  }
+
+  /**
+   * Writes this trie in the format read by {@link #readFrom(InputStream)}. Graphemes are written by
+   * id, type, name, and coordinates only, so custom {@link Grapheme} subclasses are read back as
+   * plain emoji or pictographs.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeInt(MAGIC);
+    dout.writeByte(VERSION);
+
+    dout.writeInt(table.length);
+    for (Grapheme grapheme : table) {
+      dout.writeInt(grapheme.getId());
+      switch (grapheme.getType()) {
+        case EMOJI:
+          writeString(dout, GraphemeEntry.EMOJI_TYPE);
+          break;
+        case PICTOGRAPHIC:
+          writeString(dout, GraphemeEntry.PICTOGRAPHIC_TYPE);
+          break;
+        default:
+          throw new AssertionError(grapheme.getType());
+      }
+      writeString(dout, grapheme.getName());
+      dout.writeInt(grapheme.getCoordinates().length);
+      for (int coordinate : grapheme.getCoordinates())
+        dout.writeInt(coordinate);
+    }
+
+    dout.writeInt(codePoints.length);
+    for (int[] xs : new int[][] {codePoints, children, graphemes})
+      for (int x : xs)
+        dout.writeInt(x);
+
+    dout.flush();
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF)
+      throw new IllegalArgumentException("string too long");
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  private final class Node implements GraphemeTrie {
+    private final int index;
+
+    public Node(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public GraphemeTrie getChild(int codePoint) {
+      int child = FlatTrie.findChild(codePoints, children, index, codePoint);
+      return child != -1 ? nodes[child] : null;
+    }
+
+    @Override
+    public Grapheme getGrapheme() {
+      int grapheme = graphemes[index];
+      return grapheme != -1 ? table[grapheme] : null;
+    }
+  }
+}
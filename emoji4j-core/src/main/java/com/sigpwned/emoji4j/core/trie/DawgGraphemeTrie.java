@@ -0,0 +1,286 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+
+/**
+ * An immutable {@link GraphemeTrie} stored as a minimal acyclic automaton, or DAWG. Many grapheme
+ * sequences share suffixes, e.g., skin tone modifiers, gender tails like
+ * {@code 200D 2640 FE0F}, and variation selectors, and a trie repeats each shared suffix once per
+ * prefix. This automaton merges all states that accept the same set of suffixes instead, so for the
+ * default grapheme data it has a few hundred states instead of thousands of nodes.
+ * 
+ * <p>
+ * Since states are shared, a state alone cannot tell which grapheme was matched. Instead, each edge
+ * carries a weight, and the sum of the weights along the path of an accepted sequence is the index
+ * of that sequence among all accepted sequences in lexicographic order. This is a minimal perfect
+ * hash of the sequences, and it indexes straight into the array of graphemes.
+ * 
+ * <p>
+ * This trie is meant for deployments that care about heap footprint more than speed. Walking it
+ * allocates one small object per step past the root, since each step must carry the path weight so
+ * far, and it looks up every child, including the root's, by binary search.
+ */
+public class DawgGraphemeTrie implements GraphemeTrie {
+  public static DawgGraphemeTrie fromGraphemeData(GraphemeData gs) {
+    return fromMappings(FlatTrie.toMappings(gs));
+  }
+
+  /**
+   * Builds a trie that matches exactly the same graphemes as the given trie, and shares its
+   * {@link Grapheme} instances.
+   */
+  public static DawgGraphemeTrie fromArrayGraphemeTrie(ArrayGraphemeTrie trie) {
+    return fromMappings(trie.toMappings());
+  }
+
+  /**
+   * Builds a trie from the given mappings of code point sequences to graphemes. If the same
+   * sequence appears more than once, then the last mapping wins.
+   */
+  /* default */ static DawgGraphemeTrie fromMappings(List<Mapping> mappings) {
+    return new DawgGraphemeTrie(FlatTrie.fromMappings(mappings));
+  }
+
+  /**
+   * The edges of state {@code i} are edges {@code edges[i]} (inclusive) through
+   * {@code edges[i+1]} (exclusive), sorted by code point. State 0 is the start state.
+   */
+  private final int[] edges;
+
+  /**
+   * The code point on each edge
+   */
+  private final int[] codePoints;
+
+  /**
+   * The state each edge leads to
+   */
+  private final int[] targets;
+
+  /**
+   * The weight of each edge, i.e., the number of accepted sequences that start from the edge's
+   * source state and sort before every sequence that takes this edge
+   */
+  private final int[] weights;
+
+  /**
+   * Whether each state accepts
+   */
+  private final boolean[] finals;
+
+  /**
+   * The grapheme for each accepted sequence, in lexicographic order of sequence
+   */
+  private final Grapheme[] graphemes;
+
+  /**
+   * The first UTF-16 char of each of the start state's edges
+   */
+  private final CharBitSet rootStartChars;
+
+  private DawgGraphemeTrie(FlatTrie flat) {
+    final int[] labels = flat.labels;
+    final int[] children = flat.children;
+    final int count = labels.length;
+
+    // Merge equivalent nodes bottom up. Nodes are numbered breadth-first, so every node's children
+    // come after it, and visiting nodes in reverse order sees all children first. Two nodes are
+    // equivalent if they both accept or both do not, and their edges have the same labels and lead
+    // to equivalent nodes.
+    int[] classes = new int[count];
+    int[] representatives = new int[count];
+    Map<Signature, Integer> signatures = new HashMap<>();
+    for (int node = count - 1; node >= 0; node--) {
+      int[] signature = new int[1 + 2 * (children[node + 1] - children[node])];
+      signature[0] = flat.graphemes[node] != -1 ? 1 : 0;
+      for (int child = children[node], i = 1; child < children[node + 1]; child++, i = i + 2) {
+        signature[i] = labels[child];
+        signature[i + 1] = classes[child];
+      }
+      Signature key = new Signature(signature);
+      Integer c = signatures.get(key);
+      if (c == null) {
+        c = signatures.size();
+        signatures.put(key, c);
+        representatives[c] = node;
+      }
+      classes[node] = c;
+    }
+
+    // Number the states breadth-first from the start state
+    int stateCount = signatures.size();
+    int[] states = new int[stateCount];
+    Arrays.fill(states, -1);
+    int[] order = new int[stateCount];
+    int ordered = 0;
+    states[classes[0]] = ordered;
+    order[ordered++] = classes[0];
+    int edgeCount = 0;
+    for (int i = 0; i < ordered; i++) {
+      int node = representatives[order[i]];
+      for (int child = children[node]; child < children[node + 1]; child++) {
+        if (states[classes[child]] == -1) {
+          states[classes[child]] = ordered;
+          order[ordered++] = classes[child];
+        }
+        edgeCount = edgeCount + 1;
+      }
+    }
+
+    // The number of sequences each node accepts, counting the empty sequence if it accepts itself
+    int[] sizes = new int[count];
+    for (int node = count - 1; node >= 0; node--) {
+      sizes[node] = flat.graphemes[node] != -1 ? 1 : 0;
+      for (int child = children[node]; child < children[node + 1]; child++)
+        sizes[node] = sizes[node] + sizes[child];
+    }
+
+    this.edges = new int[stateCount + 1];
+    this.codePoints = new int[edgeCount];
+    this.targets = new int[edgeCount];
+    this.weights = new int[edgeCount];
+    this.finals = new boolean[stateCount];
+    int edge = 0;
+    for (int state = 0; state < stateCount; state++) {
+      int node = representatives[order[state]];
+      finals[state] = flat.graphemes[node] != -1;
+      edges[state] = edge;
+      int weight = finals[state] ? 1 : 0;
+      for (int child = children[node]; child < children[node + 1]; child++) {
+        codePoints[edge] = labels[child];
+        targets[edge] = states[classes[child]];
+        weights[edge] = weight;
+        weight = weight + sizes[child];
+        edge = edge + 1;
+      }
+    }
+    edges[stateCount] = edge;
+
+    this.graphemes = new Grapheme[sizes[0]];
+    collectGraphemes(flat, 0, 0);
+
+    this.rootStartChars = CharBitSet
+        .fromFirstChars(Arrays.copyOfRange(codePoints, edges[0], edges[1]));
+  }
+
+  /**
+   * Stores the graphemes of the given node and its descendants in lexicographic order of sequence,
+   * starting at the given index.
+   * 
+   * @return the next index
+   */
+  private int collectGraphemes(FlatTrie flat, int node, int index) {
+    if (flat.graphemes[node] != -1)
+      graphemes[index++] = flat.table[flat.graphemes[node]];
+    for (int child = flat.children[node]; child < flat.children[node + 1]; child++)
+      index = collectGraphemes(flat, child, index);
+    return index;
+  }
+
+  @Override
+  public GraphemeTrie getChild(int codePoint) {
+    return getChild(0, 0, codePoint);
+  }
+
+  @Override
+  public Grapheme getGrapheme() {
+    return finals[0] ? graphemes[0] : null;
+  }
+
+  @Override
+  public CharBitSet getChildStartChars() {
+    return rootStartChars;
+  }
+
+  private GraphemeTrie getChild(int state, int weight, int codePoint) {
+    int edge = FlatTrie.findChild(codePoints, edges, state, codePoint);
+    return edge != -1 ? new Node(targets[edge], weight + weights[edge]) : null;
+  }
+
+  /**
+   * @return the number of states in this automaton, including the start state
+   */
+  public int size() {
+    return finals.length;
+  }
+
+  /**
+   * @return the number of edges in this automaton
+   */
+  public int getEdgeCount() {
+    return codePoints.length;
+  }
+
+  private final class Node implements GraphemeTrie {
+    private final int state;
+
+    /**
+     * The sum of the weights of the edges taken to get here
+     */
+    private final int weight;
+
+    public Node(int state, int weight) {
+      this.state = state;
+      this.weight = weight;
+    }
+
+    @Override
+    public GraphemeTrie getChild(int codePoint) {
+      return DawgGraphemeTrie.this.getChild(state, weight, codePoint);
+    }
+
+    @Override
+    public Grapheme getGrapheme() {
+      return finals[state] ? graphemes[weight] : null;
+    }
+  }
+
+  private static final class Signature {
+    private final int[] values;
+
+    public Signature(int[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Signature))
+        return false;
+      return Arrays.equals(values, ((Signature) obj).values);
+    }
+  }
+}
@@ -19,6 +19,7 @@
  */
 package com.sigpwned.emoji4j.core.trie;
 
+import java.util.List;
 import com.sigpwned.emoji4j.core.Grapheme;
 import com.sigpwned.emoji4j.core.GraphemeData;
 import com.sigpwned.emoji4j.core.GraphemeTrie;
@@ -26,40 +27,80 @@ import com.sigpwned.emoji4j.core.data.GraphemeEntry;
 import com.sigpwned.emoji4j.core.grapheme.Emoji;
 import com.sigpwned.emoji4j.core.grapheme.Pictographic;
 import com.sigpwned.emoji4j.core.org.apache.commons.lang.IntHashMap;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
 
 public class DefaultGraphemeTrie implements GraphemeTrie {
   public static DefaultGraphemeTrie fromGraphemeData(GraphemeData gs) {
+    return fromMappings(FlatTrie.toMappings(gs));
+  }
+
+  /**
+   * Builds a trie that matches exactly the same graphemes as the given trie, and shares its
+   * {@link Grapheme} instances.
+   */
+  public static DefaultGraphemeTrie fromArrayGraphemeTrie(ArrayGraphemeTrie trie) {
+    return fromMappings(trie.toMappings());
+  }
+
+  /**
+   * Builds a trie from the given mappings of code point sequences to graphemes. If the same
+   * sequence appears more than once, then the last mapping wins.
+   */
+  /* default */ static DefaultGraphemeTrie fromMappings(List<Mapping> mappings) {
     DefaultGraphemeTrie result = new DefaultGraphemeTrie();
-    for (GraphemeEntry g : gs.getGraphemes()) {
-      Grapheme grapheme;
-      switch (g.getType()) {
-        case GraphemeEntry.EMOJI_TYPE:
-          grapheme = new Emoji(g.getCanonicalCodePointSequence(), g.getName());
-          break;
-        case GraphemeEntry.PICTOGRAPHIC_TYPE:
-          grapheme = new Pictographic(g.getCanonicalCodePointSequence(), g.getName());
-          break;
-        default:
-          throw new IllegalArgumentException("unrecognized grapheme entry type " + g.getType());
-      }
-
-      result.put(g.getCanonicalCodePointSequence(), grapheme);
-      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
-        result.put(alternativeCodePointSequence, grapheme);
-    }
+    for (Mapping m : mappings)
+      result.put(m.labels, m.grapheme);
+    result.childStartChars = CharBitSet
+        .fromFirstChars(result.children != null ? result.children.keys() : new int[0]);
     return result;
   }
 
-  private final IntHashMap<DefaultGraphemeTrie> children;
-  private Grapheme grapheme;
+  /**
+   * Creates the {@link Grapheme} with the given id that the given entry's code point sequences
+   * should map to.
+   */
+  /* default */ static Grapheme newGrapheme(int id, GraphemeEntry g) {
+    return newGrapheme(id, g.getType(), g.getCanonicalCodePointSequence(), g.getName());
+  }
 
-  public DefaultGraphemeTrie() {
-    this.children = new IntHashMap<>();
+  /**
+   * Creates the {@link Grapheme} for the given id, entry type, coordinates, and name.
+   */
+  /* default */ static Grapheme newGrapheme(int id, String type, int[] coordinates,
+      String name) {
+    switch (type) {
+      case GraphemeEntry.EMOJI_TYPE:
+        return new Emoji(id, coordinates, name);
+      case GraphemeEntry.PICTOGRAPHIC_TYPE:
+        return new Pictographic(id, coordinates, name);
+      default:
+        throw new IllegalArgumentException("unrecognized grapheme entry type " + type);
+    }
   }
 
+  /**
+   * Most nodes with any children at all have only a few
+   */
+  private static final int INITIAL_CHILDREN_CAPACITY = 4;
+
+  /**
+   * The children of this node, or {@code null} if it has none. Most nodes are leaves, so they do not
+   * get a map at all.
+   */
+  private IntHashMap<DefaultGraphemeTrie> children;
+  private Grapheme grapheme;
+
+  /**
+   * The first UTF-16 char of each of this node's children. Only tracked for the root.
+   */
+  private CharBitSet childStartChars;
+
+  public DefaultGraphemeTrie() {}
+
   @Override
   public DefaultGraphemeTrie getChild(int codePoint) {
-    return children.get(codePoint);
+    return children != null ? children.get(codePoint) : null;
   }
 
   private void put(int[] codePointSequence, Grapheme grapheme) {
@@ -70,6 +111,8 @@ public class DefaultGraphemeTrie implements GraphemeTrie {
   }
 
   private DefaultGraphemeTrie getOrCreateChild(int codePoint) {
+    if (children == null)
+      children = new IntHashMap<>(INITIAL_CHILDREN_CAPACITY);
     DefaultGraphemeTrie result = children.get(codePoint);
     if (result == null) {
       result = new DefaultGraphemeTrie();
@@ -79,7 +122,7 @@ public class DefaultGraphemeTrie implements GraphemeTrie {
   }
 
   public int size() {
-    return children.size();
+    return children != null ? children.size() : 0;
   }
 
   /**
@@ -90,6 +133,11 @@ public class DefaultGraphemeTrie implements GraphemeTrie {
     return grapheme;
   }
 
+  @Override
+  public CharBitSet getChildStartChars() {
+    return childStartChars;
+  }
+
   /**
    * @param grapheme the grapheme to set
    */
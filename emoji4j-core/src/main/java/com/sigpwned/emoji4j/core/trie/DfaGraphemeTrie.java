@@ -0,0 +1,269 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+import com.sigpwned.emoji4j.core.util.CharBitSet;
+
+/**
+ * An immutable {@link GraphemeTrie} compiled into a deterministic automaton with a compressed
+ * alphabet. Below the root, only about a hundred distinct code points ever appear, e.g., skin tone
+ * modifiers, ZWJ, variation selectors, and tags, and every other code point behaves the same way:
+ * it ends the match. Each code point that appears below the root therefore gets its own class, and
+ * every other code point shares class 0. A two-level lookup table maps code points to classes, and
+ * each step is one lookup in a dense {@code int[state * classes]} transition table instead of a
+ * hash probe or binary search.
+ * 
+ * <p>
+ * The root is the exception. Thousands of distinct code points can start a grapheme, so a dense
+ * row for the root would be as wide as the whole alphabet. Instead, the root maps code points to
+ * states directly through its own two-level lookup table, just like {@link ArrayGraphemeTrie}. Only
+ * states with children get a row in the transition table, so leaves cost nothing.
+ * 
+ * <p>
+ * Every step costs the same few array reads, no matter how many children a state has. In exchange,
+ * the transition table is much larger than the node arrays of {@link ArrayGraphemeTrie}: for the
+ * default grapheme data, about two thousand rows of about a hundred classes each. The classes
+ * cannot be merged any further. In a trie, every edge leads to its own state, so no two distinct
+ * code points ever have the same column of transitions.
+ */
+public class DfaGraphemeTrie implements GraphemeTrie {
+  public static DfaGraphemeTrie fromGraphemeData(GraphemeData gs) {
+    return fromMappings(FlatTrie.toMappings(gs));
+  }
+
+  /**
+   * Builds a trie that matches exactly the same graphemes as the given trie, and shares its
+   * {@link Grapheme} instances.
+   */
+  public static DfaGraphemeTrie fromArrayGraphemeTrie(ArrayGraphemeTrie trie) {
+    return fromMappings(trie.toMappings());
+  }
+
+  /**
+   * Builds a trie from the given mappings of code point sequences to graphemes. If the same
+   * sequence appears more than once, then the last mapping wins.
+   */
+  /* default */ static DfaGraphemeTrie fromMappings(List<Mapping> mappings) {
+    return new DfaGraphemeTrie(FlatTrie.fromMappings(mappings));
+  }
+
+  /**
+   * The offset into {@link #classTable} of the page for each block of 256 code points
+   */
+  private final int[] classPages;
+
+  /**
+   * The concatenated pages of the class of each code point. Each code point that appears below the
+   * root has its own class, and class 0 is every code point that never does.
+   */
+  private final int[] classTable;
+
+  /**
+   * The number of classes, including class 0
+   */
+  private final int classCount;
+
+  /**
+   * The number of states with a row in {@link #transitions}. States {@code 1} through
+   * {@code rowCount - 1} have children, and all later states are leaves. State 0 is the root, whose
+   * row is unused.
+   */
+  private final int rowCount;
+
+  /**
+   * The state reached from state {@code s} on a code point of class {@code c} is
+   * {@code transitions[s * classCount + c]}, or 0 if there is none. The root is never a target, so
+   * 0 is free to mean "no transition."
+   */
+  private final int[] transitions;
+
+  /**
+   * The offset into {@link #rootTable} of the page for each block of 256 code points
+   */
+  private final int[] rootPages;
+
+  /**
+   * The concatenated pages of the state reached from the root on each code point, or 0 if there is
+   * none
+   */
+  private final int[] rootTable;
+
+  /**
+   * The index into {@link #table} of the grapheme at each state, or -1 if there is none.
+   */
+  private final int[] graphemes;
+
+  private final Grapheme[] table;
+
+  /**
+   * The first UTF-16 char of each of the root's children
+   */
+  private final CharBitSet rootStartChars;
+
+  /**
+   * One lightweight view per state, so that {@link #getChild(int)} never allocates.
+   */
+  private final Node[] nodes;
+
+  private DfaGraphemeTrie(FlatTrie flat) {
+    final int[] labels = flat.labels;
+    final int[] children = flat.children;
+    final int count = labels.length;
+
+    // Number the states so that the ones with children come first, right after the root.
+    int[] states = new int[count];
+    int rowCount = 1;
+    for (int node = 1; node < count; node++)
+      if (children[node] < children[node + 1])
+        states[node] = rowCount++;
+    int stateCount = rowCount;
+    for (int node = 1; node < count; node++)
+      if (children[node] == children[node + 1])
+        states[node] = stateCount++;
+
+    // Nodes are numbered breadth-first, so every node after the root's children is below them.
+    int[] alphabet = Arrays.stream(labels, children[1], count).sorted().distinct().toArray();
+    int[] classes = new int[alphabet.length];
+    for (int i = 0; i < classes.length; i++)
+      classes[i] = i + 1;
+    this.classPages = pages(alphabet);
+    this.classTable = table(classPages, alphabet, classes);
+    this.classCount = alphabet.length + 1;
+
+    this.rowCount = rowCount;
+    this.transitions = new int[rowCount * classCount];
+    for (int node = 1; node < count; node++)
+      for (int child = children[node]; child < children[node + 1]; child++)
+        transitions[states[node] * classCount + classOf(labels[child])] = states[child];
+
+    int[] rootCodePoints = Arrays.copyOfRange(labels, children[0], children[1]);
+    int[] rootStates = new int[rootCodePoints.length];
+    for (int i = 0; i < rootStates.length; i++)
+      rootStates[i] = states[children[0] + i];
+    this.rootPages = pages(rootCodePoints);
+    this.rootTable = table(rootPages, rootCodePoints, rootStates);
+
+    this.graphemes = new int[count];
+    for (int node = 0; node < count; node++)
+      graphemes[states[node]] = flat.graphemes[node];
+    this.table = flat.table;
+
+    this.rootStartChars = CharBitSet.fromFirstChars(rootCodePoints);
+
+    this.nodes = new Node[count];
+    for (int i = 0; i < nodes.length; i++)
+      nodes[i] = new Node(i);
+  }
+
+  /**
+   * Returns the first level of a two-level lookup table over the given code points: the offset of
+   * the page for each block of 256 code points. Blocks that contain none of the given code points
+   * all share the first page, which is empty.
+   */
+  private static int[] pages(int[] codePoints) {
+    int[] result = new int[(Character.MAX_CODE_POINT >>> 8) + 1];
+    int pageCount = 1;
+    for (int codePoint : codePoints)
+      if (result[codePoint >>> 8] == 0)
+        result[codePoint >>> 8] = 256 * pageCount++;
+    return result;
+  }
+
+  /**
+   * Returns the second level of a two-level lookup table that maps each of the given code points to
+   * the corresponding value, and every other code point to 0.
+   */
+  private static int[] table(int[] pages, int[] codePoints, int[] values) {
+    int pageCount = 1;
+    for (int page : pages)
+      pageCount = Math.max(pageCount, page / 256 + 1);
+    int[] result = new int[256 * pageCount];
+    for (int i = 0; i < codePoints.length; i++)
+      result[pages[codePoints[i] >>> 8] + (codePoints[i] & 0xFF)] = values[i];
+    return result;
+  }
+
+  private int classOf(int codePoint) {
+    int block = codePoint >>> 8;
+    return block < classPages.length ? classTable[classPages[block] + (codePoint & 0xFF)] : 0;
+  }
+
+  @Override
+  public GraphemeTrie getChild(int codePoint) {
+    int block = codePoint >>> 8;
+    if (block >= rootPages.length)
+      return null;
+    int child = rootTable[rootPages[block] + (codePoint & 0xFF)];
+    return child != 0 ? nodes[child] : null;
+  }
+
+  @Override
+  public Grapheme getGrapheme() {
+    return nodes[0].getGrapheme();
+  }
+
+  @Override
+  public CharBitSet getChildStartChars() {
+    return rootStartChars;
+  }
+
+  /**
+   * @return the number of states in this trie, including the root
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * @return the number of code point classes, i.e., the number of distinct code points that appear
+   *         below the root, plus one for the class of code points that never do
+   */
+  public int getClassCount() {
+    return classCount;
+  }
+
+  private final class Node implements GraphemeTrie {
+    private final int state;
+
+    public Node(int state) {
+      this.state = state;
+    }
+
+    @Override
+    public GraphemeTrie getChild(int codePoint) {
+      if (state >= rowCount)
+        return null;
+      int child = transitions[state * classCount + classOf(codePoint)];
+      return child != 0 ? nodes[child] : null;
+    }
+
+    @Override
+    public Grapheme getGrapheme() {
+      int grapheme = graphemes[state];
+      return grapheme != -1 ? table[grapheme] : null;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+
+/**
+ * The flat array layout shared by {@link ArrayGraphemeTrie} and {@link Utf8GraphemeTrie}. Nodes are
+ * numbered in breadth-first order, so the children of each node occupy a contiguous run of node
+ * numbers, sorted by edge label. Node 0 is the root.
+ */
+/* default */ final class FlatTrie {
+  /**
+   * @return the mappings from each code point sequence of the given graphemes to its grapheme, in
+   *         order. Each grapheme's id is its index in the given data.
+   */
+  public static List<Mapping> toMappings(GraphemeData gs) {
+    List<Mapping> result = new ArrayList<>();
+    List<GraphemeEntry> graphemes = gs.getGraphemes();
+    for (int id = 0; id < graphemes.size(); id++)
+      addMappings(result, id, graphemes.get(id), true);
+    return result;
+  }
+
+  /**
+   * Adds the mappings from the canonical code point sequence of the given entry, and optionally its
+   * alternative code point sequences, to a new grapheme with the given id.
+   */
+  public static void addMappings(List<Mapping> mappings, int id, GraphemeEntry g,
+      boolean alternatives) {
+    Grapheme grapheme = DefaultGraphemeTrie.newGrapheme(id, g);
+    mappings.add(new Mapping(g.getCanonicalCodePointSequence(), grapheme));
+    if (alternatives)
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        mappings.add(new Mapping(alternativeCodePointSequence, grapheme));
+  }
+
+  /**
+   * Lays out a trie for the given mappings. If the same label sequence appears more than once, then
+   * the last mapping wins, just as in {@link DefaultGraphemeTrie}. The table holds each distinct
+   * grapheme in order of first appearance in the given mappings, so for the mappings of some
+   * grapheme data, the index of each grapheme in the table is also its id.
+   */
+  public static FlatTrie fromMappings(List<Mapping> mappings) {
+    List<Grapheme> table = new ArrayList<>();
+    Map<Grapheme, Integer> indexes = new IdentityHashMap<>();
+    for (Mapping m : mappings) {
+      if (!indexes.containsKey(m.grapheme)) {
+        indexes.put(m.grapheme, table.size());
+        table.add(m.grapheme);
+      }
+    }
+
+    // Sort lexicographically. The sort is stable, so duplicate sequences keep their input order. A
+    // sequence always sorts before every sequence it prefixes, so the sequences that end at a node
+    // always come first in that node's range.
+    List<Mapping> sorted = new ArrayList<>(mappings);
+    sorted.sort((a, b) -> compare(a.labels, b.labels));
+
+    int capacity = 1;
+    for (Mapping m : sorted)
+      capacity = capacity + m.labels.length;
+
+    // Each node covers the range [lo, hi) of sorted mappings, all of which share its prefix.
+    int[] los = new int[capacity];
+    int[] his = new int[capacity];
+    int[] depths = new int[capacity];
+
+    int[] labels = new int[capacity];
+    int[] children = new int[capacity + 1];
+    int[] graphemes = new int[capacity];
+
+    int count = 1;
+    labels[0] = -1;
+    los[0] = 0;
+    his[0] = sorted.size();
+    depths[0] = 0;
+    for (int node = 0; node < count; node++) {
+      int lo = los[node];
+      int hi = his[node];
+      int depth = depths[node];
+
+      graphemes[node] = -1;
+      while (lo < hi && sorted.get(lo).labels.length == depth) {
+        graphemes[node] = indexes.get(sorted.get(lo).grapheme);
+        lo = lo + 1;
+      }
+
+      // Since we number nodes breadth-first, this node's children start wherever the last node's
+      // children stopped.
+      children[node] = count;
+      while (lo < hi) {
+        int label = sorted.get(lo).labels[depth];
+        int end = lo + 1;
+        while (end < hi && sorted.get(end).labels[depth] == label)
+          end = end + 1;
+        labels[count] = label;
+        los[count] = lo;
+        his[count] = end;
+        depths[count] = depth + 1;
+        count = count + 1;
+        lo = end;
+      }
+    }
+    children[count] = count;
+
+    return new FlatTrie(Arrays.copyOf(labels, count), Arrays.copyOf(children, count + 1),
+        Arrays.copyOf(graphemes, count), table.toArray(new Grapheme[0]));
+  }
+
+  private static int compare(int[] a, int[] b) {
+    int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      int result = Integer.compare(a[i], b[i]);
+      if (result != 0)
+        return result;
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  public static class Mapping {
+    public final int[] labels;
+    public final Grapheme grapheme;
+
+    public Mapping(int[] labels, Grapheme grapheme) {
+      this.labels = labels;
+      this.grapheme = grapheme;
+    }
+  }
+
+  /**
+   * The label on the edge leading into each node. The root has no such edge.
+   */
+  public final int[] labels;
+
+  /**
+   * The children of node {@code i} are nodes {@code children[i]} (inclusive) through
+   * {@code children[i+1]} (exclusive).
+   */
+  public final int[] children;
+
+  /**
+   * The index into {@link #table} of the grapheme at each node, or -1 if there is none.
+   */
+  public final int[] graphemes;
+
+  public final Grapheme[] table;
+
+  private FlatTrie(int[] labels, int[] children, int[] graphemes, Grapheme[] table) {
+    this.labels = labels;
+    this.children = children;
+    this.graphemes = graphemes;
+    this.table = table;
+  }
+
+  /**
+   * @return the index of the child of the given node for the given label, or -1 if there is no such
+   *         child
+   */
+  public static int findChild(int[] labels, int[] children, int node, int label) {
+    int lo = children[node];
+    int hi = children[node + 1] - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int midLabel = labels[mid];
+      if (midLabel < label)
+        lo = mid + 1;
+      else if (midLabel > label)
+        hi = mid - 1;
+      else
+        return mid;
+    }
+    return -1;
+  }
+}
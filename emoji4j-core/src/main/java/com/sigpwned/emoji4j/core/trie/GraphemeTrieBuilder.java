@@ -0,0 +1,189 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+
+/**
+ * Builds tries over a subset of some grapheme data, e.g., only emoji, or only flags. A smaller trie
+ * takes less memory, and since fewer chars can start a match, {@code find()} skips over more text
+ * without looking at the trie at all. For example:
+ * 
+ * <pre>
+ * ArrayGraphemeTrie flags = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+ *     .withFilter(g -&gt; g.getName().startsWith("flag:")).withAlternatives(false)
+ *     .buildArrayTrie();
+ * </pre>
+ * 
+ * <p>
+ * Custom graphemes, e.g., platform-specific emoji in the private use area, can be added to the same
+ * trie with {@link #withGrapheme(int[], Grapheme)}, so that one pass over the text finds both.
+ */
+public class GraphemeTrieBuilder {
+  public static GraphemeTrieBuilder of(GraphemeData data) {
+    return new GraphemeTrieBuilder(data);
+  }
+
+  /**
+   * @return a filter that keeps only graphemes of the given type, either
+   *         {@link GraphemeEntry#EMOJI_TYPE} or {@link GraphemeEntry#PICTOGRAPHIC_TYPE}
+   */
+  public static Predicate<GraphemeEntry> type(String type) {
+    if (type == null)
+      throw new NullPointerException();
+    return g -> g.getType().equals(type);
+  }
+
+  private final GraphemeData data;
+
+  /**
+   * Only graphemes that pass this filter are included
+   */
+  private Predicate<GraphemeEntry> filter;
+
+  /**
+   * If {@code true}, then each grapheme's alternative code point sequences are included, too.
+   * Otherwise, only its canonical code point sequence is included.
+   */
+  private boolean alternatives;
+
+  /**
+   * Custom code point sequences and their graphemes, in the order they were added
+   */
+  private final List<Mapping> customMappings;
+
+  public GraphemeTrieBuilder(GraphemeData data) {
+    if (data == null)
+      throw new NullPointerException();
+    this.data = data;
+    this.filter = g -> true;
+    this.alternatives = true;
+    this.customMappings = new ArrayList<>();
+  }
+
+  /**
+   * Keeps only the graphemes that pass the given filter. If there is more than one filter, then
+   * graphemes must pass all of them.
+   */
+  public GraphemeTrieBuilder withFilter(Predicate<GraphemeEntry> filter) {
+    if (filter == null)
+      throw new NullPointerException();
+    this.filter = this.filter.and(filter);
+    return this;
+  }
+
+  /**
+   * Sets whether to match each grapheme's alternative code point sequences, e.g., unqualified
+   * emoji, in addition to its canonical code point sequence. The default is {@code true}.
+   */
+  public GraphemeTrieBuilder withAlternatives(boolean alternatives) {
+    this.alternatives = alternatives;
+    return this;
+  }
+
+  /**
+   * Matches the given code point sequence as the given grapheme, which may be an instance of any
+   * subclass of {@link Grapheme}. Custom graphemes are not subject to any filter. If a custom
+   * sequence is the same as a sequence from the grapheme data, or an earlier custom sequence, then
+   * this grapheme replaces the other one.
+   */
+  public GraphemeTrieBuilder withGrapheme(int[] codePointSequence, Grapheme grapheme) {
+    if (codePointSequence == null)
+      throw new NullPointerException();
+    if (grapheme == null)
+      throw new NullPointerException();
+    if (codePointSequence.length == 0)
+      throw new IllegalArgumentException("empty sequence");
+    for (int codePoint : codePointSequence)
+      if (!Character.isValidCodePoint(codePoint)
+          || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))
+        throw new IllegalArgumentException("invalid code point " + codePoint);
+    customMappings.add(new Mapping(codePointSequence.clone(), grapheme));
+    return this;
+  }
+
+  /**
+   * Matches the given grapheme's coordinates as the given grapheme.
+   * 
+   * @see #withGrapheme(int[], Grapheme)
+   */
+  public GraphemeTrieBuilder withGrapheme(Grapheme grapheme) {
+    if (grapheme == null)
+      throw new NullPointerException();
+    return withGrapheme(grapheme.getCoordinates(), grapheme);
+  }
+
+  public DefaultGraphemeTrie buildDefaultTrie() {
+    return DefaultGraphemeTrie.fromMappings(buildMappings());
+  }
+
+  public ArrayGraphemeTrie buildArrayTrie() {
+    return ArrayGraphemeTrie.fromMappings(buildMappings());
+  }
+
+  public DfaGraphemeTrie buildDfaTrie() {
+    return DfaGraphemeTrie.fromMappings(buildMappings());
+  }
+
+  public DawgGraphemeTrie buildDawgTrie() {
+    return DawgGraphemeTrie.fromMappings(buildMappings());
+  }
+
+  public Utf8GraphemeTrie buildUtf8Trie() {
+    return Utf8GraphemeTrie.fromMappings(buildMappings());
+  }
+
+  /**
+   * Graphemes from the grapheme data keep their ids, i.e., their indexes in the full grapheme data,
+   * so they can be counted against the same {@link com.sigpwned.emoji4j.core.GraphemeTable}.
+   */
+  private List<Mapping> buildMappings() {
+    List<Mapping> result = new ArrayList<>();
+    List<GraphemeEntry> graphemes = data.getGraphemes();
+    for (int id = 0; id < graphemes.size(); id++)
+      if (filter.test(graphemes.get(id)))
+        FlatTrie.addMappings(result, id, graphemes.get(id), alternatives);
+    result.addAll(customMappings);
+    return result;
+  }
+
+  /**
+   * @return the subset of the grapheme data that the tries built by this object cover, not
+   *         including any custom graphemes
+   */
+  public GraphemeData buildGraphemeData() {
+    List<GraphemeEntry> graphemes = new ArrayList<>();
+    for (GraphemeEntry g : data.getGraphemes()) {
+      if (!filter.test(g))
+        continue;
+      if (!alternatives && g.getAlternativeCodePointSequences().length != 0)
+        g = GraphemeEntry.of(g.getName(), g.getType(), g.getCanonicalCodePointSequence(),
+            new int[0][]);
+      graphemes.add(g);
+    }
+    return GraphemeData.of(data.getUnicodeVersion(), graphemes);
+  }
+}
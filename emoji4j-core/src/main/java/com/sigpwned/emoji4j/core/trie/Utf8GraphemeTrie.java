@@ -0,0 +1,161 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.trie.FlatTrie.Mapping;
+
+/**
+ * An immutable trie of graphemes keyed on the bytes of their UTF-8 encodings, for matching UTF-8
+ * text without decoding it first. It uses the same flat array layout as {@link ArrayGraphemeTrie}.
+ * 
+ * <p>
+ * Nodes are identified by int, with {@link #ROOT} as the root, so that walking the trie never
+ * allocates. Every grapheme encoding starts with a UTF-8 leading byte and ends with a whole
+ * character, so a walk that starts on a character boundary only ever stops at graphemes that end on
+ * one, too.
+ */
+public class Utf8GraphemeTrie {
+  public static Utf8GraphemeTrie fromGraphemeData(GraphemeData gs) {
+    return fromMappings(FlatTrie.toMappings(gs));
+  }
+
+  /**
+   * Builds a trie that matches exactly the same graphemes as the given trie, and shares its
+   * {@link Grapheme} instances.
+   */
+  public static Utf8GraphemeTrie fromArrayGraphemeTrie(ArrayGraphemeTrie trie) {
+    return fromMappings(trie.toMappings());
+  }
+
+  /**
+   * Builds a trie from the given mappings of code point sequences to graphemes. If the same
+   * sequence appears more than once, then the last mapping wins.
+   */
+  /* default */ static Utf8GraphemeTrie fromMappings(List<Mapping> mappings) {
+    List<Mapping> utf8Mappings = new ArrayList<>(mappings.size());
+    for (Mapping m : mappings)
+      utf8Mappings.add(new Mapping(toUtf8(m.labels), m.grapheme));
+    return new Utf8GraphemeTrie(FlatTrie.fromMappings(utf8Mappings));
+  }
+
+  /**
+   * @return the UTF-8 encoding of the given code points, one unsigned byte per element
+   */
+  private static int[] toUtf8(int[] codePoints) {
+    int[] result = new int[4 * codePoints.length];
+    int length = 0;
+    for (int cp : codePoints) {
+      if (cp < 0x80) {
+        result[length++] = cp;
+      } else if (cp < 0x800) {
+        result[length++] = 0xC0 | (cp >>> 6);
+        result[length++] = 0x80 | (cp & 0x3F);
+      } else if (cp < 0x10000) {
+        result[length++] = 0xE0 | (cp >>> 12);
+        result[length++] = 0x80 | ((cp >>> 6) & 0x3F);
+        result[length++] = 0x80 | (cp & 0x3F);
+      } else {
+        result[length++] = 0xF0 | (cp >>> 18);
+        result[length++] = 0x80 | ((cp >>> 12) & 0x3F);
+        result[length++] = 0x80 | ((cp >>> 6) & 0x3F);
+        result[length++] = 0x80 | (cp & 0x3F);
+      }
+    }
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * The root node
+   */
+  public static final int ROOT = 0;
+
+  /**
+   * The value returned by {@link #getChild(int, int)} when there is no such child
+   */
+  public static final int NO_CHILD = -1;
+
+  /**
+   * The unsigned byte on the edge leading into each node. The root has no such edge.
+   */
+  private final int[] bytes;
+
+  /**
+   * The children of node {@code i} are nodes {@code children[i]} (inclusive) through
+   * {@code children[i+1]} (exclusive).
+   */
+  private final int[] children;
+
+  /**
+   * The index into {@link #table} of the grapheme at each node, or -1 if there is none.
+   */
+  private final int[] graphemes;
+
+  private final Grapheme[] table;
+
+  /**
+   * The root's child for each unsigned byte value, or {@link #NO_CHILD} if there is none. The root
+   * is consulted once for every byte of input, so it gets a direct lookup table.
+   */
+  private final int[] rootChildren;
+
+  private Utf8GraphemeTrie(FlatTrie flat) {
+    this.bytes = flat.labels;
+    this.children = flat.children;
+    this.graphemes = flat.graphemes;
+    this.table = flat.table;
+
+    this.rootChildren = new int[256];
+    Arrays.fill(rootChildren, NO_CHILD);
+    for (int child = children[ROOT]; child < children[ROOT + 1]; child++)
+      rootChildren[bytes[child]] = child;
+  }
+
+  /**
+   * @param node the parent node
+   * @param b the next byte of input, signed or unsigned
+   * @return the child of the given node for the given byte, or {@link #NO_CHILD} if there is none
+   */
+  public int getChild(int node, int b) {
+    if (node == ROOT)
+      return rootChildren[b & 0xFF];
+    return FlatTrie.findChild(bytes, children, node, b & 0xFF);
+  }
+
+  /**
+   * @return the grapheme whose UTF-8 encoding leads to the given node, or {@code null} if there is
+   *         none
+   */
+  public Grapheme getGrapheme(int node) {
+    int grapheme = graphemes[node];
+    return grapheme != -1 ? table[grapheme] : null;
+  }
+
+  /**
+   * @return the number of nodes in this trie, including the root
+   */
+  public int size() {
+    return bytes.length;
+  }
+}
@@ -0,0 +1,149 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+
+/**
+ * Reads and writes grapheme data in a compact binary format. This is the same data as
+ * graphemes.json, but it loads in a single pass without building any intermediate objects. The
+ * emoji4j-maven-plugin writes it as graphemes.bin. The format is:
+ * 
+ * <pre>
+ * int      magic, always {@link #MAGIC}
+ * byte     format version, always {@link #VERSION}
+ * UTF      unicode version
+ * varint   string count, followed by that many UTF strings
+ * varint   grapheme count, followed by that many graphemes:
+ *   varint   type, as an index into the strings
+ *   varint   name, as an index into the strings
+ *   sequence canonical code point sequence
+ *   varint   alternative code point sequence count, followed by that many sequences
+ * </pre>
+ * 
+ * <p>
+ * Each sequence is a varint length followed by that many varint code points. Each varint is an
+ * unsigned LEB128 value.
+ */
+public final class BinarySerialization {
+  private BinarySerialization() {}
+
+  public static final int MAGIC = 0x454D4A34;
+
+  public static final int VERSION = 1;
+
+  public static GraphemeData deserializeGraphemeData(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC)
+      throw new IOException("not grapheme data");
+    int version = in.readUnsignedByte();
+    if (version != VERSION)
+      throw new IOException("unsupported grapheme data version " + version);
+
+    String unicodeVersion = in.readUTF();
+
+    String[] strings = new String[readVarint(in)];
+    for (int i = 0; i < strings.length; i++)
+      strings[i] = in.readUTF();
+
+    int count = readVarint(in);
+    List<GraphemeEntry> graphemes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String type = strings[readVarint(in)];
+      String name = strings[readVarint(in)];
+      int[] canonicalCodePointSequence = readCodePointSequence(in);
+      int[][] alternativeCodePointSequences = new int[readVarint(in)][];
+      for (int j = 0; j < alternativeCodePointSequences.length; j++)
+        alternativeCodePointSequences[j] = readCodePointSequence(in);
+      graphemes.add(
+          GraphemeEntry.of(name, type, canonicalCodePointSequence, alternativeCodePointSequences));
+    }
+
+    return GraphemeData.of(unicodeVersion, graphemes);
+  }
+
+  public static void serializeGraphemeData(GraphemeData data, DataOutput out) throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    for (GraphemeEntry g : data.getGraphemes()) {
+      strings.putIfAbsent(g.getType(), strings.size());
+      strings.putIfAbsent(g.getName(), strings.size());
+    }
+
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeUTF(data.getUnicodeVersion());
+
+    writeVarint(out, strings.size());
+    for (String string : strings.keySet())
+      out.writeUTF(string);
+
+    writeVarint(out, data.getGraphemes().size());
+    for (GraphemeEntry g : data.getGraphemes()) {
+      writeVarint(out, strings.get(g.getType()));
+      writeVarint(out, strings.get(g.getName()));
+      writeCodePointSequence(out, g.getCanonicalCodePointSequence());
+      writeVarint(out, g.getAlternativeCodePointSequences().length);
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        writeCodePointSequence(out, alternativeCodePointSequence);
+    }
+  }
+
+  private static int[] readCodePointSequence(DataInput in) throws IOException {
+    int length = readVarint(in);
+    if (length == 0)
+      throw new IOException("empty sequence");
+    int[] result = new int[length];
+    for (int i = 0; i < length; i++)
+      result[i] = readVarint(in);
+    return result;
+  }
+
+  private static void writeCodePointSequence(DataOutput out, int[] codePoints) throws IOException {
+    writeVarint(out, codePoints.length);
+    for (int codePoint : codePoints)
+      writeVarint(out, codePoint);
+  }
+
+  private static int readVarint(DataInput in) throws IOException {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift = shift + 7) {
+      int b = in.readUnsignedByte();
+      result = result | ((b & 0x7F) << shift);
+      if ((b & 0x80) == 0)
+        return result;
+    }
+    throw new IOException("malformed varint");
+  }
+
+  private static void writeVarint(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value = value >>> 7;
+    }
+    out.writeByte(value);
+  }
+}
@@ -0,0 +1,123 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable set of UTF-16 chars, stored as a bitset with one bit per char.
+ */
+public final class CharBitSet {
+  /**
+   * The most ranges {@link #getCoveringRanges()} will return
+   */
+  public static final int MAX_COVERING_RANGES = 8;
+
+  /**
+   * Returns a set containing the first UTF-16 char of each of the given code points. For a
+   * supplementary code point, this is its high surrogate.
+   */
+  public static CharBitSet fromFirstChars(int[] codePoints) {
+    long[] words = new long[(Character.MAX_VALUE + 1) >>> 6];
+    for (int codePoint : codePoints) {
+      char ch = Character.isBmpCodePoint(codePoint) ? (char) codePoint
+          : Character.highSurrogate(codePoint);
+      words[ch >>> 6] |= 1L << ch;
+    }
+    return new CharBitSet(words);
+  }
+
+  private final long[] words;
+
+  /**
+   * @see #getCoveringRanges()
+   */
+  private final char[] coveringRanges;
+
+  private CharBitSet(long[] words) {
+    this.words = words;
+    this.coveringRanges = computeCoveringRanges(words, MAX_COVERING_RANGES);
+  }
+
+  public boolean contains(char ch) {
+    return (words[ch >>> 6] & (1L << ch)) != 0L;
+  }
+
+  /**
+   * Returns at most {@link #MAX_COVERING_RANGES} inclusive ranges of chars, as consecutive
+   * {@code (first, last)} pairs in ascending order, whose union contains every char in this set.
+   * The union may also contain chars that are not in this set. This gives a cheap, conservative
+   * test for membership that is easy to evaluate on many chars at once.
+   */
+  public char[] getCoveringRanges() {
+    return coveringRanges.clone();
+  }
+
+  private static char[] computeCoveringRanges(long[] words, int maxRanges) {
+    // Collect the runs of consecutive chars in the set
+    List<int[]> ranges = new ArrayList<>();
+    int first = -1;
+    for (int ch = 0; ch <= Character.MAX_VALUE + 1; ch++) {
+      boolean contained = ch <= Character.MAX_VALUE && (words[ch >>> 6] & (1L << ch)) != 0L;
+      if (contained && first == -1) {
+        first = ch;
+      } else if (!contained && first != -1) {
+        ranges.add(new int[] {first, ch - 1});
+        first = -1;
+      }
+    }
+
+    // Merge the pair of neighboring ranges with the cheapest gap until there are few enough
+    while (ranges.size() > maxRanges) {
+      int best = 0;
+      for (int i = 1; i < ranges.size() - 1; i++)
+        if (gapCost(ranges, i) < gapCost(ranges, best))
+          best = i;
+      ranges.get(best)[1] = ranges.get(best + 1)[1];
+      ranges.remove(best + 1);
+    }
+
+    char[] result = new char[2 * ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      result[2 * i + 0] = (char) ranges.get(i)[0];
+      result[2 * i + 1] = (char) ranges.get(i)[1];
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the cost of covering the chars between the given range and the next one. Latin text is
+   * by far the most common input, so we try hard not to cover those chars in particular.
+   */
+  private static long gapCost(List<int[]> ranges, int index) {
+    long result = 0L;
+    for (int ch = ranges.get(index)[1] + 1; ch < ranges.get(index + 1)[0]; ch++) {
+      if (ch < 0x80)
+        result = result + 1024L;
+      else if (ch < 0x800)
+        result = result + 32L;
+      else
+        result = result + 1L;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,198 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Finds the next char in a text that belongs to a given {@link CharBitSet}. Instances keep a small
+ * scratch buffer, so they are not thread-safe.
+ * 
+ * <p>
+ * On Java 17 or later, the emoji4j-core JAR also contains a {@code VectorCharScanner} that uses the
+ * incubating Vector API to test many chars at once. {@link #newInstance(CharBitSet)} uses it when
+ * the JVM was started with {@code --add-modules jdk.incubator.vector}, and otherwise falls back to
+ * a scalar implementation that tests one char at a time. Both always return the same results.
+ */
+public abstract class CharScanner {
+  private static final String VECTOR_CHAR_SCANNER_CLASS_NAME =
+      "com.sigpwned.emoji4j.core.util.VectorCharScanner";
+
+  /**
+   * The constructor of the vectorized implementation, or {@code null} if it is not available
+   */
+  private static final Constructor<? extends CharScanner> VECTOR_CHAR_SCANNER_CONSTRUCTOR =
+      findVectorCharScannerConstructor();
+
+  private static Constructor<? extends CharScanner> findVectorCharScannerConstructor() {
+    try {
+      Constructor<? extends CharScanner> result =
+          Class.forName(VECTOR_CHAR_SCANNER_CLASS_NAME).asSubclass(CharScanner.class)
+              .getConstructor(CharBitSet.class);
+
+      // Make sure the Vector API is actually usable before committing to it
+      result.newInstance(CharBitSet.fromFirstChars(new int[0]));
+
+      return result;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // We're on an older JDK, or the incubator module was not added. That's fine.
+      return null;
+    }
+  }
+
+  /**
+   * @return the fastest available scanner for the given chars
+   */
+  public static CharScanner newInstance(CharBitSet chars) {
+    if (VECTOR_CHAR_SCANNER_CONSTRUCTOR != null) {
+      try {
+        return VECTOR_CHAR_SCANNER_CONSTRUCTOR.newInstance(chars);
+      } catch (ReflectiveOperationException e) {
+        // This should never happen, since we already created one successfully. Carry on.
+      }
+    }
+    return newScalarInstance(chars);
+  }
+
+  /**
+   * @return a scanner for the given chars that tests one char at a time
+   */
+  public static CharScanner newScalarInstance(CharBitSet chars) {
+    return new ScalarCharScanner(chars);
+  }
+
+  /**
+   * @return {@code true} if {@link #newInstance(CharBitSet)} returns vectorized scanners, or
+   *         {@code false} otherwise
+   */
+  public static boolean isVectorized() {
+    return VECTOR_CHAR_SCANNER_CONSTRUCTOR != null;
+  }
+
+  /**
+   * The most chars copied out of a {@link String} at a time
+   */
+  private static final int SCRATCH_LENGTH = 512;
+
+  /**
+   * The fewest chars copied out of a {@link String} at a time. We start small and grow, since the
+   * next candidate is often close by.
+   */
+  private static final int MIN_CHUNK_LENGTH = 32;
+
+  private final CharBitSet chars;
+
+  private char[] scratch;
+
+  protected CharScanner(CharBitSet chars) {
+    if (chars == null)
+      throw new NullPointerException();
+    this.chars = chars;
+  }
+
+  /**
+   * @return the index of the first char in the given range of the given array that belongs to this
+   *         scanner's set, or {@code toIndex} if there is none
+   */
+  public abstract int indexOf(char[] text, int fromIndex, int toIndex);
+
+  /**
+   * @return the index of the first char in the given range of the given string that belongs to
+   *         this scanner's set, or {@code toIndex} if there is none
+   */
+  public int indexOf(String text, int fromIndex, int toIndex) {
+    if (scratch == null)
+      scratch = new char[SCRATCH_LENGTH];
+    int chunkLength = MIN_CHUNK_LENGTH;
+    while (fromIndex < toIndex) {
+      int length = Math.min(toIndex - fromIndex, chunkLength);
+      text.getChars(fromIndex, fromIndex + length, scratch, 0);
+      int index = indexOf(scratch, 0, length);
+      if (index < length)
+        return fromIndex + index;
+      fromIndex = fromIndex + length;
+      chunkLength = Math.min(2 * chunkLength, scratch.length);
+    }
+    return toIndex;
+  }
+
+  /**
+   * @return the index of the first char in the given range of the given text that belongs to this
+   *         scanner's set, or {@code toIndex} if there is none
+   */
+  public int indexOf(CharSequence text, int fromIndex, int toIndex) {
+    if (text instanceof String)
+      return indexOf((String) text, fromIndex, toIndex);
+    if (scratch == null)
+      scratch = new char[SCRATCH_LENGTH];
+    int chunkLength = MIN_CHUNK_LENGTH;
+    while (fromIndex < toIndex) {
+      int length = Math.min(toIndex - fromIndex, chunkLength);
+      for (int i = 0; i < length; i++)
+        scratch[i] = text.charAt(fromIndex + i);
+      int index = indexOf(scratch, 0, length);
+      if (index < length)
+        return fromIndex + index;
+      fromIndex = fromIndex + length;
+      chunkLength = Math.min(2 * chunkLength, scratch.length);
+    }
+    return toIndex;
+  }
+
+  /**
+   * @return the chars
+   */
+  public CharBitSet getChars() {
+    return chars;
+  }
+
+  private static final class ScalarCharScanner extends CharScanner {
+    public ScalarCharScanner(CharBitSet chars) {
+      super(chars);
+    }
+
+    @Override
+    public int indexOf(char[] text, int fromIndex, int toIndex) {
+      final CharBitSet chars = getChars();
+      for (int i = fromIndex; i < toIndex; i++)
+        if (chars.contains(text[i]))
+          return i;
+      return toIndex;
+    }
+
+    @Override
+    public int indexOf(String text, int fromIndex, int toIndex) {
+      final CharBitSet chars = getChars();
+      for (int i = fromIndex; i < toIndex; i++)
+        if (chars.contains(text.charAt(i)))
+          return i;
+      return toIndex;
+    }
+
+    @Override
+    public int indexOf(CharSequence text, int fromIndex, int toIndex) {
+      final CharBitSet chars = getChars();
+      for (int i = fromIndex; i < toIndex; i++)
+        if (chars.contains(text.charAt(i)))
+          return i;
+      return toIndex;
+    }
+  }
+}
@@ -19,35 +19,247 @@
  */
 package com.sigpwned.emoji4j.core.util;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import com.sigpwned.emoji4j.core.Grapheme;
 import com.sigpwned.emoji4j.core.GraphemeData;
-import com.sigpwned.emoji4j.core.org.json.JSONObject;
+import com.sigpwned.emoji4j.core.GraphemeMatchConsumer;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTable;
+import com.sigpwned.emoji4j.core.io.GraphemeReplacingWriter;
 import com.sigpwned.emoji4j.core.org.json.JSONTokener;
+import com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie;
 import com.sigpwned.emoji4j.core.trie.DefaultGraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.Utf8GraphemeTrie;
 
 public final class Graphemes {
   private Graphemes() {}
 
+  /**
+   * Loads the default grapheme data. This prefers the compact graphemes.bin, and falls back to
+   * graphemes.json if it is not available.
+   */
   public static GraphemeData getGraphemeData() {
-    JSONObject o;
+    GraphemeData result = getBinaryGraphemeData();
+    if (result == null)
+      result = getJsonGraphemeData();
+    return result;
+  }
+
+  /**
+   * @return the grapheme data from graphemes.bin, or {@code null} if it is not available
+   */
+  /* default */ static GraphemeData getBinaryGraphemeData() {
+    try (InputStream in =
+        Thread.currentThread().getContextClassLoader().getResourceAsStream("graphemes.bin")) {
+      if (in == null)
+        return null;
+      return BinarySerialization
+          .deserializeGraphemeData(new DataInputStream(new BufferedInputStream(in)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("failed to load grapheme data", e);
+    }
+  }
+
+  /**
+   * @return the grapheme data from graphemes.json
+   */
+  /* default */ static GraphemeData getJsonGraphemeData() {
     try (InputStream in =
         Thread.currentThread().getContextClassLoader().getResourceAsStream("graphemes.json")) {
-      o = new JSONObject(new JSONTokener(in));
+      return Serialization.deserializeGraphemeData(
+          new JSONTokener(new InputStreamReader(in, StandardCharsets.UTF_8)));
     } catch (IOException e) {
       throw new UncheckedIOException("failed to load grapheme data", e);
     }
-    return Serialization.deserializeGraphemeData(o);
   }
 
-  private static DefaultGraphemeTrie defaultTrie;
+  /**
+   * Holds the default trie. The JVM initializes this class, and so builds the trie, exactly once,
+   * the first time it is used, and every later read takes no lock at all.
+   */
+  private static final class DefaultTrieHolder {
+    static final DefaultGraphemeTrie INSTANCE =
+        DefaultGraphemeTrie.fromArrayGraphemeTrie(getDefaultArrayTrie());
+  }
+
+  /**
+   * Returns the default trie, building it on first use. Use {@link #preloadAsync()} to build it in
+   * the background ahead of time instead. All of the default tries are built from
+   * {@link #getDefaultArrayTrie()} and share its {@link Grapheme} instances, so no grapheme data is
+   * loaded or kept around.
+   */
+  public static DefaultGraphemeTrie getDefaultTrie() {
+    return DefaultTrieHolder.INSTANCE;
+  }
+
+  private static final class DefaultArrayTrieHolder {
+    static final ArrayGraphemeTrie INSTANCE = loadDefaultArrayTrie();
+  }
+
+  /**
+   * Returns a compiled, immutable trie over the default grapheme data. It matches exactly the same
+   * graphemes as {@link #getDefaultTrie()}, but stores its nodes in a handful of flat arrays. This
+   * uses the table that the default build compiles into emoji4j-core, so it needs no I/O. Builds
+   * without the generated table load the precompiled graphemes.trie instead, or failing that,
+   * build the trie from the grapheme data.
+   * 
+   * @see ArrayGraphemeTrie#fromGeneratedTable()
+   */
+  public static ArrayGraphemeTrie getDefaultArrayTrie() {
+    return DefaultArrayTrieHolder.INSTANCE;
+  }
+
+  private static ArrayGraphemeTrie loadDefaultArrayTrie() {
+    ArrayGraphemeTrie result = ArrayGraphemeTrie.fromGeneratedTable();
+    if (result == null)
+      result = getPrecompiledArrayTrie();
+    if (result == null)
+      result = ArrayGraphemeTrie.fromGraphemeData(getGraphemeData());
+    return result;
+  }
+
+  /**
+   * @return the trie from graphemes.trie, or {@code null} if it is not available
+   */
+  /* default */ static ArrayGraphemeTrie getPrecompiledArrayTrie() {
+    return getPrecompiledArrayTrie(Thread.currentThread().getContextClassLoader(),
+        "graphemes.trie");
+  }
+
+  /**
+   * @return the trie from the given resource, or {@code null} if it is not available, or cannot be
+   *         read, e.g., because it was written by an older version with a different format. The
+   *         caller can always fall back to building the trie from the grapheme data, so a bad
+   *         resource must not break the default tries for good.
+   */
+  /* default */ static ArrayGraphemeTrie getPrecompiledArrayTrie(ClassLoader classLoader,
+      String name) {
+    try (InputStream in = classLoader.getResourceAsStream(name)) {
+      if (in == null)
+        return null;
+      return ArrayGraphemeTrie.readFrom(in);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static final class DefaultGraphemeTableHolder {
+    static final GraphemeTable INSTANCE = GraphemeTable.of(getDefaultArrayTrie().getGraphemes());
+  }
+
+  /**
+   * Returns the table of every grapheme in the default grapheme data by id. The default tries all
+   * share these {@link Grapheme} instances, so {@code table.get(g.getId()) == g} for every grapheme
+   * {@code g} they match.
+   */
+  public static GraphemeTable getDefaultGraphemeTable() {
+    return DefaultGraphemeTableHolder.INSTANCE;
+  }
+
+  private static final class DefaultUtf8TrieHolder {
+    static final Utf8GraphemeTrie INSTANCE =
+        Utf8GraphemeTrie.fromArrayGraphemeTrie(getDefaultArrayTrie());
+  }
+
+  /**
+   * Returns a trie over the default grapheme data that is keyed on UTF-8 bytes, for use with
+   * {@link com.sigpwned.emoji4j.core.Utf8GraphemeMatcher}.
+   */
+  public static Utf8GraphemeTrie getDefaultUtf8Trie() {
+    return DefaultUtf8TrieHolder.INSTANCE;
+  }
+
+  /**
+   * Builds the default tries in the background on the default asynchronous executor of
+   * {@link CompletableFuture}, so that the first match does not have to wait for them, e.g., while
+   * a server boots.
+   * 
+   * @see #preloadAsync(Executor)
+   */
+  public static CompletableFuture<Void> preloadAsync() {
+    return CompletableFuture.runAsync(Graphemes::preload);
+  }
+
+  /**
+   * Builds the default tries in the background on the given executor. The returned future
+   * completes once {@link #getDefaultTrie()} and {@link #getDefaultArrayTrie()}, which the default
+   * constructors of the matchers use, are ready. It completes exceptionally if either could not be
+   * built.
+   */
+  public static CompletableFuture<Void> preloadAsync(Executor executor) {
+    return CompletableFuture.runAsync(Graphemes::preload, executor);
+  }
+
+  private static void preload() {
+    getDefaultArrayTrie();
+    getDefaultTrie();
+  }
+
+  /**
+   * Reports each grapheme in the given text to the given action, in order, using the default trie.
+   * Nothing is allocated per match.
+   * 
+   * @see GraphemeMatcher#forEachMatch(GraphemeMatchConsumer)
+   */
+  public static void forEachMatch(CharSequence text, GraphemeMatchConsumer action) {
+    new GraphemeMatcher(text).forEachMatch(action);
+  }
 
-  public static synchronized DefaultGraphemeTrie getDefaultTrie() {
-    if (defaultTrie == null)
-      defaultTrie = DefaultGraphemeTrie.fromGraphemeData(getGraphemeData());
-    return defaultTrie;
+  /**
+   * Returns {@code true} if the given text contains at least one grapheme, using the default trie.
+   * This returns as soon as it sees the first grapheme, without finding where it ends.
+   * 
+   * @see GraphemeMatcher#containsAny()
+   */
+  public static boolean containsAny(CharSequence text) {
+    return new GraphemeMatcher(text).containsAny();
   }
 
+  /**
+   * Returns the number of graphemes in the given text, using the default trie. Nothing is allocated
+   * per match.
+   * 
+   * @see GraphemeMatcher#count()
+   */
+  public static int count(CharSequence text) {
+    return new GraphemeMatcher(text).count();
+  }
+
+  /**
+   * Returns the index of the first grapheme in the given text, or -1 if there is none, using the
+   * default trie.
+   * 
+   * @see GraphemeMatcher#indexOfFirst()
+   */
+  public static int indexOfFirst(CharSequence text) {
+    return new GraphemeMatcher(text).indexOfFirst();
+  }
+
+  /**
+   * Copies all text from the given reader to the given writer, replacing each grapheme with the
+   * computed string along the way, using the default trie. Memory use is constant, no matter how
+   * much text there is. Neither the reader nor the writer is closed.
+   * 
+   * @see GraphemeReplacingWriter
+   */
+  public static void replaceAll(Reader in, Writer out, Function<Grapheme, String> replacer)
+      throws IOException {
+    GraphemeReplacingWriter w = new GraphemeReplacingWriter(out, replacer);
+    char[] buf = new char[8192];
+    for (int n = in.read(buf); n != -1; n = in.read(buf))
+      w.write(buf, 0, n);
+    w.finish();
+  }
 
 }
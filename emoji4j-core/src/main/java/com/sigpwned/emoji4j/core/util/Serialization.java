@@ -20,11 +20,14 @@
 package com.sigpwned.emoji4j.core.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import com.sigpwned.emoji4j.core.GraphemeData;
 import com.sigpwned.emoji4j.core.data.GraphemeEntry;
 import com.sigpwned.emoji4j.core.org.json.JSONArray;
 import com.sigpwned.emoji4j.core.org.json.JSONObject;
+import com.sigpwned.emoji4j.core.org.json.JSONTokener;
 
 public final class Serialization {
   private Serialization() {}
@@ -75,4 +78,198 @@ public final class Serialization {
       result[i] = xs.getInt(i);
     return result;
   }
+
+  /**
+   * Reads grapheme data in the same format as {@link #deserializeGraphemeData(JSONObject)}, but
+   * token by token, without ever building a {@link JSONObject} or {@link JSONArray}.
+   */
+  public static GraphemeData deserializeGraphemeData(JSONTokener t) {
+    List<GraphemeEntry> graphemes = new ArrayList<>();
+    String unicodeVersion = deserializeGraphemeData(t, graphemes::add);
+    return GraphemeData.of(unicodeVersion, graphemes);
+  }
+
+  /**
+   * Reads grapheme data token by token, and hands each grapheme entry to the given action as soon as
+   * it is read, e.g., to insert it into a trie. Nothing is kept once the action returns, so memory
+   * use is constant no matter how many entries there are. Keys may appear in any order, and unknown
+   * keys are skipped.
+   * 
+   * @return the unicode version
+   */
+  public static String deserializeGraphemeData(JSONTokener t, Consumer<GraphemeEntry> action) {
+    String unicodeVersion = null;
+    boolean graphemes = false;
+    if (beginObject(t)) {
+      do {
+        String key = nextKey(t);
+        switch (key) {
+          case "unicodeVersion":
+            unicodeVersion = nextString(t);
+            break;
+          case "graphemes":
+            if (beginArray(t)) {
+              do {
+                action.accept(deserializeGraphemeEntry(t));
+              } while (nextSeparator(t, ']'));
+            }
+            graphemes = true;
+            break;
+          default:
+            t.nextValue();
+            break;
+        }
+      } while (nextSeparator(t, '}'));
+    }
+    if (unicodeVersion == null)
+      throw t.syntaxError("Missing unicodeVersion");
+    if (!graphemes)
+      throw t.syntaxError("Missing graphemes");
+    return unicodeVersion;
+  }
+
+  public static GraphemeEntry deserializeGraphemeEntry(JSONTokener t) {
+    String name = null;
+    String type = null;
+    int[] canonicalCodePointSequence = null;
+    int[][] alternativeCodePointSequences = new int[0][];
+    if (beginObject(t)) {
+      do {
+        String key = nextKey(t);
+        switch (key) {
+          case "name":
+            name = nextString(t);
+            break;
+          case "type":
+            type = nextString(t);
+            break;
+          case "canonicalCodePointSequence":
+            canonicalCodePointSequence = deserializeCodePointSequence(t);
+            break;
+          case "alternativeCodePointSequences":
+            alternativeCodePointSequences = deserializeCodePointSequences(t);
+            break;
+          default:
+            t.nextValue();
+            break;
+        }
+      } while (nextSeparator(t, '}'));
+    }
+    if (name == null)
+      throw t.syntaxError("Missing name");
+    if (type == null)
+      throw t.syntaxError("Missing type");
+    if (canonicalCodePointSequence == null)
+      throw t.syntaxError("Missing canonicalCodePointSequence");
+    return GraphemeEntry.of(name, type, canonicalCodePointSequence, alternativeCodePointSequences);
+  }
+
+  public static int[][] deserializeCodePointSequences(JSONTokener t) {
+    if (!beginArray(t))
+      return new int[0][];
+    List<int[]> result = new ArrayList<>();
+    do {
+      result.add(deserializeCodePointSequence(t));
+    } while (nextSeparator(t, ']'));
+    return result.toArray(new int[0][]);
+  }
+
+  public static int[] deserializeCodePointSequence(JSONTokener t) {
+    if (!beginArray(t))
+      throw new IllegalArgumentException("empty sequence");
+    int[] result = new int[8];
+    int length = 0;
+    do {
+      if (length == result.length)
+        result = Arrays.copyOf(result, 2 * length);
+      result[length++] = nextInt(t);
+    } while (nextSeparator(t, ']'));
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * Consumes the opening brace of an object.
+   * 
+   * @return {@code true} if the object has at least one member, or {@code false} if it was empty,
+   *         in which case the closing brace has been consumed too
+   */
+  private static boolean beginObject(JSONTokener t) {
+    return begin(t, '{', '}');
+  }
+
+  /**
+   * Consumes the opening bracket of an array.
+   * 
+   * @return {@code true} if the array has at least one element, or {@code false} if it was empty,
+   *         in which case the closing bracket has been consumed too
+   */
+  private static boolean beginArray(JSONTokener t) {
+    return begin(t, '[', ']');
+  }
+
+  private static boolean begin(JSONTokener t, char open, char close) {
+    if (t.nextClean() != open)
+      throw t.syntaxError("Expected '" + open + "'");
+    if (t.nextClean() == close)
+      return false;
+    t.back();
+    return true;
+  }
+
+  /**
+   * Consumes the separator after a member or element.
+   * 
+   * @return {@code true} if another member or element follows, or {@code false} if the given
+   *         closing char ended the object or array
+   */
+  private static boolean nextSeparator(JSONTokener t, char close) {
+    char c = t.nextClean();
+    if (c == ',')
+      return true;
+    if (c == close)
+      return false;
+    throw t.syntaxError("Expected ',' or '" + close + "'");
+  }
+
+  private static String nextKey(JSONTokener t) {
+    String result = nextString(t);
+    if (t.nextClean() != ':')
+      throw t.syntaxError("Expected ':'");
+    return result;
+  }
+
+  private static String nextString(JSONTokener t) {
+    char c = t.nextClean();
+    if (c != '"')
+      throw t.syntaxError("Expected a string");
+    return t.nextString(c);
+  }
+
+  /**
+   * Reads an integer without boxing it
+   */
+  private static int nextInt(JSONTokener t) {
+    char c = t.nextClean();
+    boolean negative = c == '-';
+    if (negative)
+      c = t.next();
+    if (c < '0' || c > '9')
+      throw t.syntaxError("Expected an integer");
+    long result = 0;
+    while (c >= '0' && c <= '9') {
+      result = 10 * result + (c - '0');
+      if (result > Integer.MAX_VALUE + 1L)
+        throw t.syntaxError("Integer out of range");
+      c = t.next();
+    }
+    if (c == '.' || c == 'e' || c == 'E')
+      throw t.syntaxError("Expected an integer");
+    if (c != 0)
+      t.back();
+    if (negative)
+      result = -result;
+    if (result > Integer.MAX_VALUE)
+      throw t.syntaxError("Integer out of range");
+    return (int) result;
+  }
 }
@@ -0,0 +1,90 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link CharScanner} that uses the Vector API to test many chars at once against the
+ * {@link CharBitSet#getCoveringRanges() covering ranges} of its set. Only the chars that fall in
+ * one of those ranges are then checked against the set itself. Requires
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+public final class VectorCharScanner extends CharScanner {
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  /**
+   * The first char of each covering range
+   */
+  private final short[] firsts;
+
+  /**
+   * The width of each covering range, i.e., last minus first
+   */
+  private final short[] widths;
+
+  public VectorCharScanner(CharBitSet chars) {
+    super(chars);
+    char[] ranges = chars.getCoveringRanges();
+    this.firsts = new short[ranges.length / 2];
+    this.widths = new short[ranges.length / 2];
+    for (int i = 0; i < firsts.length; i++) {
+      firsts[i] = (short) ranges[2 * i + 0];
+      widths[i] = (short) (ranges[2 * i + 1] - ranges[2 * i + 0]);
+    }
+  }
+
+  @Override
+  public int indexOf(char[] text, int fromIndex, int toIndex) {
+    final CharBitSet chars = getChars();
+
+    int index = fromIndex;
+
+    final int bound = fromIndex + SPECIES.loopBound(toIndex - fromIndex);
+    while (index < bound) {
+      ShortVector v = ShortVector.fromCharArray(SPECIES, text, index);
+
+      // A char c is in the range [first, first+width] iff (c - first) <= width as unsigned values.
+      VectorMask<Short> candidates = SPECIES.maskAll(false);
+      for (int i = 0; i < firsts.length; i++)
+        candidates = candidates
+            .or(v.sub(firsts[i]).compare(VectorOperators.UNSIGNED_LE, widths[i]));
+
+      if (candidates.anyTrue()) {
+        // The covering ranges are conservative, so check each candidate for real.
+        final int end = index + SPECIES.length();
+        for (int i = index + candidates.firstTrue(); i < end; i++)
+          if (chars.contains(text[i]))
+            return i;
+      }
+
+      index = index + SPECIES.length();
+    }
+
+    for (; index < toIndex; index++)
+      if (chars.contains(text[index]))
+        return index;
+
+    return toIndex;
+  }
+}
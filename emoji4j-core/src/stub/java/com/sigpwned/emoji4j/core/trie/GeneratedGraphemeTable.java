@@ -0,0 +1,64 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+/**
+ * Stands in for the {@code GeneratedGraphemeTable} that the emoji4j-maven-plugin generates, when
+ * emoji4j-core is built with {@code -Demoji4j.generateSources=false}. It has no table, so
+ * {@link ArrayGraphemeTrie#fromGeneratedTable()} returns {@code null}, and the default trie is
+ * loaded from graphemes.trie instead.
+ */
+final class GeneratedGraphemeTable {
+  private GeneratedGraphemeTable() {}
+
+  private static final String NOT_GENERATED = "grapheme table not generated";
+
+  static final boolean AVAILABLE = false;
+
+  static final String UNICODE_VERSION = null;
+
+  static int[] codePoints() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static int[] children() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static int[] graphemes() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static String[] types() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static String[] names() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static int[] coordinateOffsets() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+
+  static int[] coordinates() {
+    throw new IllegalStateException(NOT_GENERATED);
+  }
+}
@@ -24,6 +24,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.containsString;
 import static java.util.stream.Collectors.toList;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Test;
@@ -69,6 +70,23 @@ public abstract class GraphemeMatcherTest {
     assertThat(m.grapheme().getName(), is("slightly smiling face"));
   }
 
+  /**
+   * Skipping over non-emoji text should step over whole surrogate pairs
+   */
+  @Test
+  public void findAfterSupplementaryTest() {
+    String text = "\uD835\uDC9C\uD83D\uDE42\uD835\uDC9C \uD83D\uDE42";
+
+    GraphemeMatcher m = newGraphemeMatcher(text);
+
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(2));
+    assertThat(m.end(), is(4));
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(7));
+    assertThat(m.find(), is(false));
+  }
+
   /**
    * We should not match if the whole string is not an emoji
    */
@@ -165,6 +183,171 @@ public abstract class GraphemeMatcherTest {
     assertThat(remainingMatches, is(asList(woman3, woman4, woman5)));
   }
 
+  @Test
+  public void toMatchResultTest() {
+    String woman1 = "👩";
+    String woman2 = "👩🏼";
+
+    String women = String.join(" ", new String[] {woman1, woman2});
+
+    GraphemeMatcher m = newGraphemeMatcher(women);
+
+    assertThat(m.find(), is(true));
+    GraphemeMatchResult mr = m.toMatchResult();
+
+    assertThat(m.find(), is(true));
+    assertThat(m.find(), is(false));
+
+    assertThat(mr.start(), is(0));
+    assertThat(mr.end(), is(woman1.length()));
+    assertThat(mr.group(), is(woman1));
+  }
+
+  @Test
+  public void resetTest() {
+    String woman1 = "👩";
+    String woman2 = "👩🏼";
+
+    GraphemeMatcher m = newGraphemeMatcher("hello " + woman1);
+    assertThat(m.find(), is(true));
+    assertThat(m.group(), is(woman1));
+
+    StringBuilder builder = new StringBuilder("hi " + woman2 + " there");
+    m.reset(builder);
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(3));
+    assertThat(m.group(), is(woman2));
+
+    // The snapshot must not change when the underlying text does
+    GraphemeMatchResult mr = m.toMatchResult();
+    builder.setLength(0);
+    assertThat(mr.group(), is(woman2));
+
+    m.reset(CharBuffer.wrap(woman1 + " and " + woman2));
+    List<String> matches = m.results().map(GraphemeMatchResult::group).collect(toList());
+    assertThat(matches, is(asList(woman1, woman2)));
+    assertThat(m.replaceAll("x"), is("x and x"));
+  }
+
+  /**
+   * Callers compiled against the original String constructors must still link
+   */
+  @Test
+  public void stringConstructorsTest() throws ReflectiveOperationException {
+    String text = "hello 🙂 world";
+    GraphemeMatcher m = GraphemeMatcher.class.getConstructor(String.class).newInstance(text);
+    assertThat(m.find(), is(true));
+    assertThat(m.group(), is("🙂"));
+
+    GraphemeMatcher.class.getConstructor(GraphemeTrie.class, String.class);
+  }
+
+  @Test
+  public void charArrayRegionTest() {
+    String woman1 = "👩";
+    String woman2 = "👩🏼";
+
+    char[] buffer = (woman1 + "ab " + woman2 + " cd" + woman1).toCharArray();
+    int offset = woman1.length() + 2;
+    int length = woman2.length() + 3;
+
+    GraphemeMatcher m = newGraphemeMatcher("");
+    m.reset(buffer, offset, length);
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(1));
+    assertThat(m.end(), is(1 + woman2.length()));
+    assertThat(m.group(), is(woman2));
+    assertThat(m.find(), is(false));
+
+    assertThat(m.replaceAll("x"), is(" x c"));
+  }
+
+  @Test
+  public void forEachMatchTest() {
+    String woman1 = "👩";
+    String woman2 = "👩🏼";
+    String woman3 = "👩🏽";
+
+    String women = String.join(" ", new String[] {woman1, woman2, woman3});
+
+    GraphemeMatcher m = newGraphemeMatcher(women);
+
+    assertThat(m.find(), is(true));
+    assertThat(women.substring(m.start(), m.end()), is(woman1));
+
+    List<String> remainingMatches = new ArrayList<>();
+    m.forEachMatch((start, end, grapheme) -> {
+      String group = women.substring(start, end);
+      assertThat(grapheme, is(newGraphemeMatcher(group).results().findFirst().get().grapheme()));
+      remainingMatches.add(group);
+    });
+
+    assertThat(remainingMatches, is(asList(woman2, woman3)));
+    assertThat(m.find(), is(false));
+  }
+
+  @Test
+  public void findAllTest() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++)
+      text.append("👩 hi 👩🏼 and ☺");
+
+    List<String> expected = new ArrayList<>();
+    newGraphemeMatcher(text.toString()).forEachMatch(
+        (start, end, grapheme) -> expected.add(start + ":" + end + ":" + grapheme.getId()));
+
+    // Start with no room at all, so the buffer must grow, and keep what is already there
+    GraphemeMatchBuffer matches = new GraphemeMatchBuffer(0);
+    assertThat(newGraphemeMatcher(text.toString()).findAll(matches), is(expected.size()));
+    assertThat(newGraphemeMatcher("👩").findAll(matches), is(1));
+
+    List<String> observed = new ArrayList<>();
+    int[] array = matches.getMatches();
+    for (int i = 0; i < matches.size(); i++) {
+      observed.add(matches.start(i) + ":" + matches.end(i) + ":" + matches.id(i));
+      assertThat(array[GraphemeMatchBuffer.STRIDE * i + 2], is(matches.id(i)));
+    }
+    assertThat(observed.subList(0, expected.size()), is(expected));
+    assertThat(observed.get(expected.size()), is(expected.get(0)));
+
+    matches.clear();
+    assertThat(matches.size(), is(0));
+    assertThat(newGraphemeMatcher("no emoji here").findAll(matches), is(0));
+  }
+
+  /**
+   * The queries must agree with {@link GraphemeMatcher#find()}, and must not disturb the matcher
+   */
+  @Test
+  public void queriesTest() {
+    String woman1 = "👩";
+    String woman2 = "👩🏼";
+    for (String text : new String[] {"", "no emoji here", woman2, "hi " + woman2 + woman1 + " ☺",
+        "1" + woman1 + "#️⃣ \u200D\uFE0F" + woman2, "\uD83D" + woman1 + "\uDE42x"}) {
+      GraphemeMatcher expected = newGraphemeMatcher(text);
+      int count = 0;
+      int first = -1;
+      while (expected.find()) {
+        if (count == 0)
+          first = expected.start();
+        count = count + 1;
+      }
+
+      GraphemeMatcher m = newGraphemeMatcher(text);
+      assertThat(m.containsAny(), is(count > 0));
+      assertThat(m.indexOfFirst(), is(first));
+      assertThat(m.count(), is(count));
+
+      // The matcher must pick up right where it was
+      if (count > 0) {
+        assertThat(m.find(), is(true));
+        assertThat(m.start(), is(first));
+        assertThat(m.count(), is(count - 1));
+        assertThat(m.containsAny(), is(count > 1));
+      }
+    }
+  }
+
   /**
    * Run a test against every grapheme in the grapheme data.
    */
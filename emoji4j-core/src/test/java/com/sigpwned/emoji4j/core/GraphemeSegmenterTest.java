@@ -0,0 +1,165 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.Arrays.asList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class GraphemeSegmenterTest {
+  @Test
+  public void emptyTest() {
+    assertThat(clusters(""), is(Collections.emptyList()));
+  }
+
+  @Test
+  public void controlTest() {
+    assertThat(clusters("a\r\nb\n\rc"), is(asList("a", "\r\n", "b", "\n", "\r", "c")));
+  }
+
+  @Test
+  public void combiningMarkTest() {
+    assertThat(clusters("éx̀́ ́"),
+        is(asList("é", "x̀́", " ́")));
+  }
+
+  @Test
+  public void hangulTest() {
+    assertThat(clusters("각가각ᆨ가ᄀ"),
+        is(asList("각", "가", "각ᆨ", "가", "ᄀ")));
+  }
+
+  @Test
+  public void prependTest() {
+    assertThat(clusters("؀a b"), is(asList("؀a", " ", "b")));
+  }
+
+  /**
+   * Regional indicators pair up from the left, no matter what they spell
+   */
+  @Test
+  public void regionalIndicatorTest() {
+    assertThat(clusters("🇵🇹🇯🇵🇺x"), is(asList("🇵🇹*", "🇯🇵*", "🇺", "x")));
+  }
+
+  @Test
+  public void emojiTest() {
+    assertThat(clusters("hi 👩‍👩‍👧 👩🏼 1️⃣ 🧑‍🦰"),
+        is(asList("h", "i", " ", "👩‍👩‍👧*", " ", "👩🏼*", " ", "1️⃣*", " ", "🧑‍🦰*")));
+  }
+
+  /**
+   * A ZWJ only joins a pictograph to another pictograph, so it stays with the letter before it
+   */
+  @Test
+  public void zwjTest() {
+    assertThat(clusters("a‍🙂"), is(asList("a‍", "🙂*")));
+  }
+
+  /**
+   * Clusters that are not exactly one grapheme, e.g., an emoji with a stray combining mark, are not
+   * tagged
+   */
+  @Test
+  public void partialTest() {
+    assertThat(clusters("🙂́🙂"), is(asList("🙂́", "🙂*")));
+  }
+
+  /**
+   * Devanagari KA, VIRAMA, SSA, VOWEL SIGN I is one conjunct
+   */
+  @Test
+  public void conjunctTest() {
+    assertThat(clusters("क्षिक"),
+        is(asList("क्षि", "क")));
+  }
+
+  @Test
+  public void accessorsTest() {
+    GraphemeSegmenter s = new GraphemeSegmenter("a🙂");
+
+    assertThat(s.next(), is(true));
+    assertThat(s.start(), is(0));
+    assertThat(s.end(), is(1));
+    assertThat(s.grapheme(), is(nullValue()));
+
+    assertThat(s.next(), is(true));
+    assertThat(s.start(), is(1));
+    assertThat(s.end(), is(3));
+    assertThat(s.grapheme().getName(), is("slightly smiling face"));
+
+    assertThat(s.next(), is(false));
+
+    s.reset();
+    assertThat(s.next(), is(true));
+    assertThat(s.group(), is("a"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void noClusterTest() {
+    new GraphemeSegmenter("a").start();
+  }
+
+  /**
+   * Every sequence in the grapheme data is exactly one cluster, tagged with the same grapheme that
+   * the matcher finds. The line breaks around each sequence keep the emoji modifiers, which are
+   * Extend on their own, from joining the text before them.
+   */
+  @Test
+  public void graphemeDataTest() {
+    for (GraphemeEntry e : Graphemes.getGraphemeData().getGraphemes()) {
+      List<int[]> sequences = new ArrayList<>();
+      sequences.add(e.getCanonicalCodePointSequence());
+      sequences.addAll(asList(e.getAlternativeCodePointSequences()));
+      for (int[] sequence : sequences) {
+        String grapheme = new String(sequence, 0, sequence.length);
+
+        GraphemeMatcher m = new GraphemeMatcher(grapheme);
+        assertThat(m.find(), is(true));
+
+        GraphemeSegmenter s = new GraphemeSegmenter("\n" + grapheme + "\n");
+        assertThat(s.next(), is(true));
+        assertThat(s.next(), is(true));
+        assertThat(grapheme, s.group(), is(grapheme));
+        assertThat(grapheme, s.grapheme(), is(m.grapheme()));
+        assertThat(s.next(), is(true));
+        assertThat(s.next(), is(false));
+      }
+    }
+  }
+
+  /**
+   * @return the clusters of the given text, with a {@code *} after each tagged cluster
+   */
+  private static List<String> clusters(String text) {
+    List<String> result = new ArrayList<>();
+    GraphemeSegmenter s = new GraphemeSegmenter(text);
+    while (s.next())
+      result.add(s.grapheme() != null ? s.group() + "*" : s.group());
+    return result;
+  }
+}
@@ -0,0 +1,86 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.grapheme.Emoji;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class GraphemeTableTest {
+  /**
+   * Every grapheme in the default data gets the id of its index in the data
+   */
+  @Test
+  public void defaultTableTest() {
+    GraphemeTable table = Graphemes.getDefaultGraphemeTable();
+    List<GraphemeEntry> entries = Graphemes.getGraphemeData().getGraphemes();
+
+    assertThat(table.size(), is(entries.size()));
+    for (int id = 0; id < table.size(); id++) {
+      assertThat(table.get(id).getId(), is(id));
+      assertThat(table.get(id).getName(), is(entries.get(id).getName()));
+    }
+  }
+
+  /**
+   * The default tries all hand out the graphemes in the default table
+   */
+  @Test
+  public void matchedGraphemesTest() {
+    GraphemeTable table = Graphemes.getDefaultGraphemeTable();
+    String text = "hello 🙂 world 👩🏼 and 🗺️ and ☺ and 🙂";
+
+    for (GraphemeTrie trie : asList(Graphemes.getDefaultTrie(), Graphemes.getDefaultArrayTrie())) {
+      GraphemeMatcher m = new GraphemeMatcher(trie, text);
+      while (m.find())
+        assertThat(table.get(m.grapheme().getId()) == m.grapheme(), is(true));
+    }
+  }
+
+  @Test
+  public void histogramTest() {
+    GraphemeTable table = Graphemes.getDefaultGraphemeTable();
+    long[] counts = new long[table.size()];
+    Graphemes.forEachMatch("🙂 hi 🙂 ☺ 🙂", (start, end, grapheme) -> counts[grapheme.getId()]++);
+
+    int smile = new GraphemeMatcher("🙂").results().findFirst().get().grapheme().getId();
+    int total = 0;
+    for (long count : counts)
+      total += count;
+    assertThat(counts[smile], is(3L));
+    assertThat(total, is(4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sparseTest() {
+    GraphemeTable.of(asList(new Emoji(0, new int[] {0x1F642}, "a"),
+        new Emoji(2, new int[] {0x1F643}, "b")));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void outOfBoundsTest() {
+    Graphemes.getDefaultGraphemeTable().get(-1);
+  }
+}
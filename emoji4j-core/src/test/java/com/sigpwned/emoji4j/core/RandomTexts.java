@@ -0,0 +1,106 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+/**
+ * Generates random text for differential tests, i.e., tests that check two ways of doing the same
+ * thing always agree. Each text mixes ASCII prose with code point sequences from the default
+ * grapheme data, supplementary characters, and broken surrogate pairs.
+ */
+public final class RandomTexts {
+  private RandomTexts() {}
+
+  private static final String PROSE = "The quick brown fox jumps over the lazy dog 1234567890 #*. ";
+
+  private static final List<int[]> SEQUENCES = new ArrayList<>();
+  static {
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      SEQUENCES.add(g.getCanonicalCodePointSequence());
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        SEQUENCES.add(alternativeCodePointSequence);
+    }
+  }
+
+  /**
+   * Returns mostly prose, with occasional emoji, CJK, supplementary characters, and broken
+   * surrogate pairs mixed in.
+   */
+  public static String newProse(Random random, int length) {
+    StringBuilder result = new StringBuilder();
+    while (result.length() < length) {
+      int dice = random.nextInt(100);
+      if (dice < 85) {
+        appendProse(result, random);
+      } else if (dice < 90) {
+        appendSequence(result, random);
+      } else if (dice < 94) {
+        result.append((char) (0x4E00 + random.nextInt(0x5000)));
+      } else if (dice < 97) {
+        appendSupplementary(result, random);
+      } else {
+        appendSurrogate(result, random);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns mostly prose, with frequent emoji, supplementary characters, and broken surrogate pairs
+   */
+  public static String newText(Random random, int length) {
+    StringBuilder result = new StringBuilder();
+    while (result.length() < length) {
+      int dice = random.nextInt(100);
+      if (dice < 70) {
+        appendProse(result, random);
+      } else if (dice < 90) {
+        appendSequence(result, random);
+      } else if (dice < 95) {
+        appendSupplementary(result, random);
+      } else {
+        appendSurrogate(result, random);
+      }
+    }
+    return result.toString();
+  }
+
+  private static void appendProse(StringBuilder result, Random random) {
+    result.append(PROSE.charAt(random.nextInt(PROSE.length())));
+  }
+
+  private static void appendSequence(StringBuilder result, Random random) {
+    int[] sequence = SEQUENCES.get(random.nextInt(SEQUENCES.size()));
+    result.append(new String(sequence, 0, sequence.length));
+  }
+
+  private static void appendSupplementary(StringBuilder result, Random random) {
+    result.appendCodePoint(0x1D400 + random.nextInt(0x400));
+  }
+
+  private static void appendSurrogate(StringBuilder result, Random random) {
+    result.append((char) (Character.MIN_SURROGATE + random.nextInt(0x800)));
+  }
+}
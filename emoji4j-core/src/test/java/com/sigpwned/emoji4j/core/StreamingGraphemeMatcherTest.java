@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class StreamingGraphemeMatcherTest {
+  @Test
+  public void findTest() throws IOException {
+    String text = "hello 👩🏼 world ☺️!";
+
+    try (StreamingGraphemeMatcher m = new StreamingGraphemeMatcher(new StringReader(text))) {
+      assertThat(m.find(), is(true));
+      assertThat(m.start(), is(6L));
+      assertThat(m.end(), is(10L));
+      assertThat(m.group(), is("👩🏼"));
+
+      assertThat(m.find(), is(true));
+      assertThat(m.start(), is(17L));
+      assertThat(m.end(), is(19L));
+      assertThat(m.group(), is("☺️"));
+
+      assertThat(m.find(), is(false));
+    }
+  }
+
+  @Test
+  public void channelTest() throws IOException {
+    String text = "hello 👩🏼 world ☺️!";
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+    try (StreamingGraphemeMatcher m = new StreamingGraphemeMatcher(
+        Channels.newChannel(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8)) {
+      assertThat(matches(m), is(matches(new GraphemeMatcher(text))));
+    }
+  }
+
+  /**
+   * The streaming matcher must find exactly the same matches as the in-memory matcher, no matter
+   * where the text happens to be split between reads.
+   */
+  @Test
+  public void differentialTest() throws IOException {
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 200; trial++) {
+      String text = RandomTexts.newText(random, random.nextInt(5000));
+      List<String> expected = matches(new GraphemeMatcher(text));
+      for (int windowSize : new int[] {1, 2, 3, 17, 1024}) {
+        StreamingGraphemeMatcher m = new StreamingGraphemeMatcher(Graphemes.getDefaultTrie(),
+            new ChoppyReader(text, random), windowSize);
+        assertThat(matches(m), is(expected));
+      }
+    }
+  }
+
+  private static List<String> matches(GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.group() + ":" + m.grapheme().getName());
+    return result;
+  }
+
+  private static List<String> matches(StreamingGraphemeMatcher m) throws IOException {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.group() + ":" + m.grapheme().getName());
+    return result;
+  }
+
+  /**
+   * A reader that returns a random, small number of chars from each read
+   */
+  private static class ChoppyReader extends Reader {
+    private final String text;
+    private final Random random;
+    private int index;
+
+    public ChoppyReader(String text, Random random) {
+      this.text = text;
+      this.random = random;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (index == text.length())
+        return -1;
+      int n = Math.min(Math.min(len, 1 + random.nextInt(8)), text.length() - index);
+      text.getChars(index, index + n, cbuf, off);
+      index = index + n;
+      return n;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,149 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class Utf8GraphemeMatcherTest {
+  @Test
+  public void findTest() {
+    String text = "hello 👩🏼 world ☺️!";
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+    Utf8GraphemeMatcher m = new Utf8GraphemeMatcher(bytes, 0, bytes.length);
+
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(6));
+    assertThat(m.end(), is(14));
+    assertThat(m.group(), is("👩🏼"));
+
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(21));
+    assertThat(m.end(), is(27));
+    assertThat(m.group(), is("☺️"));
+
+    assertThat(m.find(), is(false));
+  }
+
+  @Test
+  public void malformedTest() {
+    byte[] emoji = "👩".getBytes(StandardCharsets.UTF_8);
+
+    // Truncated and stray continuation bytes never match, but do not hide later emoji
+    byte[] bytes = new byte[] {emoji[0], emoji[1], emoji[2], (byte) ' ', (byte) 0xA9, emoji[0],
+        emoji[1], emoji[2], emoji[3]};
+
+    Utf8GraphemeMatcher m = new Utf8GraphemeMatcher(bytes, 0, bytes.length);
+    assertThat(m.find(), is(true));
+    assertThat(m.start(), is(5));
+    assertThat(m.end(), is(9));
+    assertThat(m.find(), is(false));
+  }
+
+  /**
+   * Run a test against every grapheme in the grapheme data.
+   */
+  @Test
+  public void generatedTest() {
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      int[] cps = g.getCanonicalCodePointSequence();
+      byte[] bytes = new String(cps, 0, cps.length).getBytes(StandardCharsets.UTF_8);
+
+      Utf8GraphemeMatcher m = new Utf8GraphemeMatcher(bytes, 0, bytes.length);
+      assertThat(m.find(), is(true));
+      assertThat(m.start(), is(0));
+      assertThat(m.end(), is(bytes.length));
+      assertThat(m.grapheme().getName(), is(g.getName()));
+    }
+  }
+
+  /**
+   * Matching UTF-8 must find exactly the same graphemes as matching the decoded text.
+   */
+  @Test
+  public void differentialTest() {
+    List<int[]> sequences = new ArrayList<>();
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      sequences.add(g.getCanonicalCodePointSequence());
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        sequences.add(alternativeCodePointSequence);
+    }
+
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 100; trial++) {
+      StringBuilder text = new StringBuilder();
+      while (text.length() < 2000) {
+        int dice = random.nextInt(100);
+        if (dice < 85) {
+          text.append("The quick brown fox 1234567890 #*©. ".charAt(random.nextInt(36)));
+        } else if (dice < 93) {
+          int[] sequence = sequences.get(random.nextInt(sequences.size()));
+          text.appendCodePoint(sequence[0]);
+          for (int i = 1; i < sequence.length; i++)
+            if (random.nextInt(10) != 0)
+              text.appendCodePoint(sequence[i]);
+        } else if (dice < 97) {
+          text.append((char) (0x4E00 + random.nextInt(0x5000)));
+        } else {
+          text.appendCodePoint(0x1D400 + random.nextInt(0x400));
+        }
+      }
+
+      List<String> expected = new ArrayList<>();
+      GraphemeMatcher m = new GraphemeMatcher(text);
+      while (m.find()) {
+        int start = text.substring(0, m.start()).getBytes(StandardCharsets.UTF_8).length;
+        int end = text.substring(0, m.end()).getBytes(StandardCharsets.UTF_8).length;
+        expected.add(start + ":" + end + ":" + m.grapheme().getName());
+      }
+
+      byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+      assertThat(matches(new Utf8GraphemeMatcher(bytes, 0, bytes.length)), is(expected));
+
+      byte[] padded = new byte[bytes.length + 2];
+      System.arraycopy(bytes, 0, padded, 1, bytes.length);
+      padded[0] = (byte) 0xF0;
+      padded[padded.length - 1] = (byte) 0x9F;
+      assertThat(matches(new Utf8GraphemeMatcher(padded, 1, bytes.length)), is(expected));
+
+      ByteBuffer direct = ByteBuffer.allocateDirect(padded.length);
+      direct.put(padded);
+      direct.position(1).limit(1 + bytes.length);
+      assertThat(matches(new Utf8GraphemeMatcher(direct)), is(expected));
+      assertThat(direct.position(), is(1));
+    }
+  }
+
+  private static List<String> matches(Utf8GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    m.forEachMatch((start, end, grapheme) -> result.add(start + ":" + end + ":" + grapheme.getName()));
+    return result;
+  }
+}
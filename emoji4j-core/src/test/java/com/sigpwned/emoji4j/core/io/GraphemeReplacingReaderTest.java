@@ -0,0 +1,104 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.RandomTexts;
+
+public class GraphemeReplacingReaderTest {
+  @Test
+  public void stripTest() throws IOException {
+    try (Reader r = new GraphemeReplacingReader(new StringReader("hello 👩🏼 world ☺️!"), g -> "")) {
+      assertThat(readAll(r, new Random(0L)), is("hello  world !"));
+    }
+  }
+
+  /**
+   * The reader must produce exactly the same text as the in-memory matcher, no matter how the
+   * underlying text is split between reads.
+   */
+  @Test
+  public void differentialTest() throws IOException {
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 200; trial++) {
+      String text = RandomTexts.newText(random, random.nextInt(5000));
+      String expected = new GraphemeMatcher(text)
+          .replaceAll(mr -> "<" + mr.grapheme().getName() + ">");
+
+      try (Reader r = new GraphemeReplacingReader(new ChoppyReader(text, random),
+          g -> "<" + g.getName() + ">")) {
+        assertThat(readAll(r, random), is(expected));
+      }
+    }
+  }
+
+  private static String readAll(Reader r, Random random) throws IOException {
+    StringBuilder result = new StringBuilder();
+    char[] buf = new char[16];
+    while (true) {
+      if (random.nextInt(10) == 0) {
+        int ch = r.read();
+        if (ch == -1)
+          break;
+        result.append((char) ch);
+      } else {
+        int n = r.read(buf, 0, 1 + random.nextInt(buf.length));
+        if (n == -1)
+          break;
+        result.append(buf, 0, n);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * A reader that returns a random, small number of chars from each read
+   */
+  private static class ChoppyReader extends Reader {
+    private final String text;
+    private final Random random;
+    private int index;
+
+    public ChoppyReader(String text, Random random) {
+      this.text = text;
+      this.random = random;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (index == text.length())
+        return -1;
+      int n = Math.min(Math.min(len, 1 + random.nextInt(8)), text.length() - index);
+      text.getChars(index, index + n, cbuf, off);
+      index = index + n;
+      return n;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
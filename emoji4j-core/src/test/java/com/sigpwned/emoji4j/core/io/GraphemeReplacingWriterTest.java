@@ -0,0 +1,97 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.RandomTexts;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class GraphemeReplacingWriterTest {
+  @Test
+  public void stripTest() throws IOException {
+    StringWriter out = new StringWriter();
+    try (GraphemeReplacingWriter w = new GraphemeReplacingWriter(out, g -> "")) {
+      w.write("hello 👩");
+      w.write("🏼 world ☺");
+      w.write("️!");
+    }
+    assertThat(out.toString(), is("hello  world !"));
+  }
+
+  @Test
+  public void finishTest() throws IOException {
+    StringWriter out = new StringWriter();
+    GraphemeReplacingWriter w = new GraphemeReplacingWriter(out, g -> "<" + g.getName() + ">");
+    w.write("hi 👩");
+    w.flush();
+
+    // The woman could still turn out to have a skin tone, so we have to wait and see
+    assertThat(out.toString(), is("hi "));
+
+    w.finish();
+    assertThat(out.toString(), is("hi <woman>"));
+  }
+
+  @Test
+  public void replaceAllTest() throws IOException {
+    String text = "hello 👩🏼 world ☺️!";
+    StringWriter out = new StringWriter();
+    Graphemes.replaceAll(new StringReader(text), out, g -> "<" + g.getName() + ">");
+    assertThat(out.toString(),
+        is(new GraphemeMatcher(text).replaceAll(mr -> "<" + mr.grapheme().getName() + ">")));
+  }
+
+  /**
+   * The writer must produce exactly the same text as the in-memory matcher, no matter where the
+   * text happens to be split between writes.
+   */
+  @Test
+  public void differentialTest() throws IOException {
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 200; trial++) {
+      String text = RandomTexts.newText(random, random.nextInt(5000));
+      String expected = new GraphemeMatcher(text)
+          .replaceAll(mr -> "<" + mr.grapheme().getName() + ">");
+
+      StringWriter out = new StringWriter();
+      try (GraphemeReplacingWriter w =
+          new GraphemeReplacingWriter(out, g -> "<" + g.getName() + ">")) {
+        int index = 0;
+        while (index < text.length()) {
+          int n = Math.min(text.length() - index, 1 + random.nextInt(8));
+          if (random.nextBoolean())
+            w.write(text, index, n);
+          else
+            w.write(text.toCharArray(), index, n);
+          index = index + n;
+        }
+      }
+
+      assertThat(out.toString(), is(expected));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeMatcherTest;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class ArrayGraphemeTrieGraphemeMatcherTest extends GraphemeMatcherTest {
+  @Override
+  public GraphemeMatcher newGraphemeMatcher(String input) {
+    ArrayGraphemeTrie trie = Graphemes.getDefaultArrayTrie();
+    return new GraphemeMatcher(trie, input);
+  }
+
+  /**
+   * The array trie should find exactly the same matches as the default trie for every grapheme in
+   * the grapheme data.
+   */
+  @Test
+  public void defaultTrieDifferentialTest() {
+    StringBuilder text = new StringBuilder();
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      text.append(new String(g.getCanonicalCodePointSequence(), 0,
+          g.getCanonicalCodePointSequence().length)).append(" ");
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        text.append(
+            new String(alternativeCodePointSequence, 0, alternativeCodePointSequence.length))
+            .append(" ");
+    }
+
+    assertThat(matches(newGraphemeMatcher(text.toString())),
+        is(matches(new GraphemeMatcher(Graphemes.getDefaultTrie(), text.toString()))));
+  }
+
+  private static List<String> matches(GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.grapheme().getName());
+    return result;
+  }
+}
@@ -0,0 +1,109 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeNotNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class ArrayGraphemeTrieSerializationTest {
+  @Test
+  public void roundTripTest() throws IOException {
+    ArrayGraphemeTrie trie = ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData());
+
+    byte[] bytes = toBytes(trie);
+    ArrayGraphemeTrie copy = ArrayGraphemeTrie.readFrom(new ByteArrayInputStream(bytes));
+
+    assertThat(copy.size(), is(trie.size()));
+    assertThat(toBytes(copy), is(bytes));
+
+    String text = "hello 🙂 world 👩🏼 and 🗺️ and ☺ and 🙂‍↔️";
+    assertThat(matches(copy, text), is(matches(trie, text)));
+  }
+
+  /**
+   * The generated graphemes.trie must be exactly the trie we would build from the grapheme data
+   */
+  @Test
+  public void generatedTest() throws IOException {
+    byte[] generated;
+    try (InputStream in =
+        Thread.currentThread().getContextClassLoader().getResourceAsStream("graphemes.trie")) {
+      if (in == null)
+        return;
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      byte[] chunk = new byte[16384];
+      for (int n = in.read(chunk); n != -1; n = in.read(chunk))
+        buf.write(chunk, 0, n);
+      generated = buf.toByteArray();
+    }
+
+    assertThat(generated,
+        is(toBytes(ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData()))));
+  }
+
+  /**
+   * The generated GeneratedGraphemeTable must also be exactly the trie we would build. This is
+   * skipped for builds without the generated table.
+   */
+  @Test
+  public void generatedTableTest() throws IOException {
+    ArrayGraphemeTrie generated = ArrayGraphemeTrie.fromGeneratedTable();
+    assumeNotNull(generated);
+
+    assertThat(toBytes(generated),
+        is(toBytes(ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData()))));
+  }
+
+  @Test(expected = IOException.class)
+  public void badMagicTest() throws IOException {
+    ArrayGraphemeTrie.readFrom(new ByteArrayInputStream(new byte[] {'{', '"', 'u', 'n', 'i'}));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedTest() throws IOException {
+    byte[] bytes = toBytes(ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData()));
+    ArrayGraphemeTrie.readFrom(new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+  }
+
+  private static byte[] toBytes(ArrayGraphemeTrie trie) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    trie.writeTo(result);
+    return result.toByteArray();
+  }
+
+  private static List<String> matches(GraphemeTrie trie, String text) {
+    List<String> result = new ArrayList<>();
+    GraphemeMatcher m = new GraphemeMatcher(trie, text);
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.grapheme().getName());
+    return result;
+  }
+}
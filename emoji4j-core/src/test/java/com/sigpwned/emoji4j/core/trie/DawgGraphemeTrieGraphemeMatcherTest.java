@@ -0,0 +1,108 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeMatcherTest;
+import com.sigpwned.emoji4j.core.GraphemeTable;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class DawgGraphemeTrieGraphemeMatcherTest extends GraphemeMatcherTest {
+  private static final DawgGraphemeTrie TRIE =
+      DawgGraphemeTrie.fromArrayGraphemeTrie(Graphemes.getDefaultArrayTrie());
+
+  @Override
+  public GraphemeMatcher newGraphemeMatcher(String input) {
+    return new GraphemeMatcher(TRIE, input);
+  }
+
+  /**
+   * The DAWG should find exactly the same matches as the array trie for every grapheme in the
+   * grapheme data, including when graphemes run together or are cut short.
+   */
+  @Test
+  public void arrayTrieDifferentialTest() {
+    List<int[]> sequences = new ArrayList<>();
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      sequences.add(g.getCanonicalCodePointSequence());
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        sequences.add(alternativeCodePointSequence);
+    }
+
+    StringBuilder spaced = new StringBuilder();
+    StringBuilder packed = new StringBuilder();
+    StringBuilder truncated = new StringBuilder();
+    for (int[] sequence : sequences) {
+      spaced.append(new String(sequence, 0, sequence.length)).append(" ");
+      packed.append(new String(sequence, 0, sequence.length));
+      truncated.append(new String(sequence, 0, sequence.length - 1)).append("x");
+    }
+
+    for (StringBuilder text : new StringBuilder[] {spaced, packed, truncated})
+      assertThat(matches(newGraphemeMatcher(text.toString())), is(matches(
+          new GraphemeMatcher(Graphemes.getDefaultArrayTrie(), text.toString()))));
+  }
+
+  /**
+   * The whole point is that shared suffixes are stored only once
+   */
+  @Test
+  public void sizeTest() {
+    assertThat(TRIE.size() * 10 < Graphemes.getDefaultArrayTrie().size(), is(true));
+    assertThat(TRIE.getEdgeCount() < Graphemes.getDefaultArrayTrie().size() / 2, is(true));
+  }
+
+  /**
+   * Every accepted sequence must recover its own grapheme, even though states are shared
+   */
+  @Test
+  public void graphemesTest() {
+    GraphemeTable table = Graphemes.getDefaultGraphemeTable();
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      GraphemeTrie t = TRIE;
+      for (int codePoint : g.getCanonicalCodePointSequence())
+        t = t.getChild(codePoint);
+      assertThat(t.getGrapheme() == table.get(t.getGrapheme().getId()), is(true));
+      assertThat(t.getGrapheme().getName(), is(g.getName()));
+    }
+  }
+
+  @Test
+  public void emptyTest() {
+    DawgGraphemeTrie trie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(g -> false).buildDawgTrie();
+    assertThat(trie.size(), is(1));
+    assertThat(new GraphemeMatcher(trie, "hello 🙂 world").find(), is(false));
+  }
+
+  private static List<String> matches(GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.grapheme().getName());
+    return result;
+  }
+}
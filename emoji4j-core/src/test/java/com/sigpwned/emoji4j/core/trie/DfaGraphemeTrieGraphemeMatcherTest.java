@@ -0,0 +1,91 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeMatcherTest;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class DfaGraphemeTrieGraphemeMatcherTest extends GraphemeMatcherTest {
+  private static final DfaGraphemeTrie TRIE =
+      DfaGraphemeTrie.fromArrayGraphemeTrie(Graphemes.getDefaultArrayTrie());
+
+  @Override
+  public GraphemeMatcher newGraphemeMatcher(String input) {
+    return new GraphemeMatcher(TRIE, input);
+  }
+
+  /**
+   * The DFA should find exactly the same matches as the array trie for every grapheme in the
+   * grapheme data, including when graphemes run together or are cut short.
+   */
+  @Test
+  public void arrayTrieDifferentialTest() {
+    List<int[]> sequences = new ArrayList<>();
+    for (GraphemeEntry g : Graphemes.getGraphemeData().getGraphemes()) {
+      sequences.add(g.getCanonicalCodePointSequence());
+      for (int[] alternativeCodePointSequence : g.getAlternativeCodePointSequences())
+        sequences.add(alternativeCodePointSequence);
+    }
+
+    StringBuilder spaced = new StringBuilder();
+    StringBuilder packed = new StringBuilder();
+    StringBuilder truncated = new StringBuilder();
+    for (int[] sequence : sequences) {
+      spaced.append(new String(sequence, 0, sequence.length)).append(" ");
+      packed.append(new String(sequence, 0, sequence.length));
+      truncated.append(new String(sequence, 0, sequence.length - 1)).append("x");
+    }
+
+    for (StringBuilder text : new StringBuilder[] {spaced, packed, truncated})
+      assertThat(matches(newGraphemeMatcher(text.toString())), is(matches(
+          new GraphemeMatcher(Graphemes.getDefaultArrayTrie(), text.toString()))));
+  }
+
+  /**
+   * The whole point is that few code points appear below the root
+   */
+  @Test
+  public void classCountTest() {
+    assertThat(TRIE.size(), is(Graphemes.getDefaultArrayTrie().size()));
+    assertThat(TRIE.getClassCount() < 256, is(true));
+  }
+
+  @Test
+  public void emptyTest() {
+    DfaGraphemeTrie trie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(g -> false).buildDfaTrie();
+    assertThat(trie.size(), is(1));
+    assertThat(new GraphemeMatcher(trie, "hello 🙂 world").find(), is(false));
+  }
+
+  private static List<String> matches(GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.grapheme().getName());
+    return result;
+  }
+}
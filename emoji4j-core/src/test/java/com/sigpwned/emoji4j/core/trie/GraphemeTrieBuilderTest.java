@@ -0,0 +1,172 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.trie;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.Grapheme;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.Utf8GraphemeMatcher;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.util.Graphemes;
+
+public class GraphemeTrieBuilderTest {
+  public static final String TEXT = "hi 🇵🇹 🙂 ☺ ☺️ 🇯🇵 👩🏼";
+
+  @Test
+  public void flagsTest() {
+    GraphemeTrieBuilder builder = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(g -> g.getName().startsWith("flag:"));
+
+    for (GraphemeTrie trie : asList(builder.buildDefaultTrie(), builder.buildArrayTrie()))
+      assertThat(matches(trie, TEXT), is(asList("🇵🇹", "🇯🇵")));
+
+    assertThat(builder.buildArrayTrie().size() < Graphemes.getDefaultArrayTrie().size(), is(true));
+  }
+
+  @Test
+  public void typeTest() {
+    GraphemeTrie trie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(GraphemeTrieBuilder.type(GraphemeEntry.PICTOGRAPHIC_TYPE)).buildArrayTrie();
+
+    GraphemeMatcher m = new GraphemeMatcher(trie, TEXT);
+    assertThat(m.find(), is(true));
+    assertThat(m.group(), is("☺"));
+    assertThat(m.grapheme().getType(), is(Grapheme.Type.PICTOGRAPHIC));
+  }
+
+  @Test
+  public void withoutAlternativesTest() {
+    GraphemeTrieBuilder builder = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(GraphemeTrieBuilder.type(GraphemeEntry.EMOJI_TYPE)).withAlternatives(false);
+
+    // Every match must be exactly the canonical code point sequence of its grapheme
+    GraphemeMatcher m = new GraphemeMatcher(builder.buildArrayTrie(), TEXT);
+    int count = 0;
+    while (m.find()) {
+      int[] coordinates = m.grapheme().getCoordinates();
+      assertThat(m.group(), is(new String(coordinates, 0, coordinates.length)));
+      count = count + 1;
+    }
+    assertThat(count > 0, is(true));
+
+    assertThat(
+        builder.buildArrayTrie().size() < GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+            .withFilter(GraphemeTrieBuilder.type(GraphemeEntry.EMOJI_TYPE)).buildArrayTrie()
+            .size(),
+        is(true));
+  }
+
+  @Test
+  public void allTest() {
+    GraphemeTrie trie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData()).buildDefaultTrie();
+    assertThat(matches(trie, TEXT), is(matches(Graphemes.getDefaultTrie(), TEXT)));
+  }
+
+  public static class CustomEmoji extends Grapheme {
+    public CustomEmoji(int[] coordinates, String name) {
+      super(Type.EMOJI, coordinates, name);
+    }
+  }
+
+  @Test
+  public void customGraphemesTest() {
+    String logo = "\uE000";
+    String party = ":party:";
+    CustomEmoji logoEmoji = new CustomEmoji(logo.codePoints().toArray(), "logo");
+    CustomEmoji partyEmoji = new CustomEmoji(party.codePoints().toArray(), "party");
+    CustomEmoji smileEmoji = new CustomEmoji("🙂".codePoints().toArray(), "custom smile");
+
+    GraphemeTrieBuilder builder = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withGrapheme(logoEmoji).withGrapheme(partyEmoji).withGrapheme(smileEmoji);
+
+    String text = "we " + logo + " love " + party + " 🙂 and 🇵🇹 :part:";
+    List<String> expected = asList(logo + "=logo", party + "=party", "🙂=custom smile",
+        "🇵🇹=flag: portugal");
+    for (GraphemeTrie trie : asList(builder.buildDefaultTrie(), builder.buildArrayTrie())) {
+      List<String> observed = new ArrayList<>();
+      GraphemeMatcher m = new GraphemeMatcher(trie, text);
+      while (m.find()) {
+        observed.add(m.group() + "=" + m.grapheme().getName());
+        if (m.grapheme().getName().equals("logo"))
+          assertThat(m.grapheme() == logoEmoji, is(true));
+      }
+      assertThat(observed, is(expected));
+    }
+
+    List<String> observed = new ArrayList<>();
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    Utf8GraphemeMatcher m =
+        new Utf8GraphemeMatcher(builder.buildUtf8Trie(), bytes, 0, bytes.length);
+    while (m.find())
+      observed.add(m.group() + "=" + m.grapheme().getName());
+    assertThat(observed, is(expected));
+  }
+
+  /**
+   * Graphemes in a subset trie keep their ids from the full data, and custom graphemes have none
+   */
+  @Test
+  public void idsTest() {
+    CustomEmoji logoEmoji = new CustomEmoji(new int[] {0xE000}, "logo");
+    GraphemeTrie trie = GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withFilter(g -> g.getName().startsWith("flag:")).withGrapheme(logoEmoji)
+        .buildArrayTrie();
+
+    GraphemeMatcher m = new GraphemeMatcher(trie, TEXT);
+    int count = 0;
+    while (m.find()) {
+      Grapheme expected = new GraphemeMatcher(m.group()).results().findFirst().get().grapheme();
+      assertThat(m.grapheme().getId(), is(expected.getId()));
+      count = count + 1;
+    }
+    assertThat(count, is(2));
+
+    m = new GraphemeMatcher(trie, "\uE000");
+    assertThat(m.find(), is(true));
+    assertThat(m.grapheme().getId(), is(Grapheme.NO_ID));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void customEmptyTest() {
+    GraphemeTrieBuilder.of(Graphemes.getGraphemeData()).withGrapheme(new int[0],
+        new CustomEmoji(new int[0], "nothing"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void customSurrogateTest() {
+    GraphemeTrieBuilder.of(Graphemes.getGraphemeData())
+        .withGrapheme(new CustomEmoji(new int[] {0xD83D}, "half"));
+  }
+
+  private static List<String> matches(GraphemeTrie trie, String text) {
+    List<String> result = new ArrayList<>();
+    GraphemeMatcher m = new GraphemeMatcher(trie, text);
+    while (m.find())
+      result.add(m.group());
+    return result;
+  }
+}
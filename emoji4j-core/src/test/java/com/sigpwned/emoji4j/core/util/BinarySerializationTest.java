@@ -0,0 +1,63 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeData;
+
+public class BinarySerializationTest {
+  @Test
+  public void roundTripTest() throws IOException {
+    GraphemeData data = Graphemes.getJsonGraphemeData();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      BinarySerialization.serializeGraphemeData(data, out);
+    }
+
+    GraphemeData copy = BinarySerialization.deserializeGraphemeData(
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertThat(copy, is(data));
+  }
+
+  /**
+   * The generated graphemes.bin must contain exactly the same data as the generated graphemes.json
+   */
+  @Test
+  public void generatedTest() {
+    GraphemeData data = Graphemes.getBinaryGraphemeData();
+    if (data != null)
+      assertThat(data, is(Graphemes.getJsonGraphemeData()));
+  }
+
+  @Test(expected = IOException.class)
+  public void badMagicTest() throws IOException {
+    BinarySerialization.deserializeGraphemeData(
+        new DataInputStream(new ByteArrayInputStream(new byte[] {'{', '"', 'u', 'n', 'i'})));
+  }
+}
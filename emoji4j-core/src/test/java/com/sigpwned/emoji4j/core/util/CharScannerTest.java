@@ -0,0 +1,125 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.GraphemeTrie;
+import com.sigpwned.emoji4j.core.RandomTexts;
+
+public class CharScannerTest {
+  /**
+   * The default scanner, which is vectorized when possible, must always agree with the scalar one.
+   */
+  @Test
+  public void differentialTest() {
+    CharBitSet chars = Graphemes.getDefaultArrayTrie().getChildStartChars();
+    CharScanner expected = CharScanner.newScalarInstance(chars);
+    CharScanner observed = CharScanner.newInstance(chars);
+
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 1000; trial++) {
+      String text = RandomTexts.newProse(random, random.nextInt(2000));
+      char[] array = text.toCharArray();
+      int fromIndex = text.isEmpty() ? 0 : random.nextInt(text.length());
+      int toIndex = fromIndex + random.nextInt(text.length() - fromIndex + 1);
+
+      assertThat(observed.indexOf(array, fromIndex, toIndex),
+          is(expected.indexOf(array, fromIndex, toIndex)));
+      assertThat(observed.indexOf(text, fromIndex, toIndex),
+          is(expected.indexOf(text, fromIndex, toIndex)));
+      assertThat(observed.indexOf(new StringBuilder(text), fromIndex, toIndex),
+          is(expected.indexOf(text, fromIndex, toIndex)));
+    }
+  }
+
+  /**
+   * The matcher scans ahead for candidates in long texts. It must find exactly the same matches as
+   * the original loop, which visits the trie for every code point.
+   */
+  @Test
+  public void matcherDifferentialTest() {
+    GraphemeTrie trie = Graphemes.getDefaultArrayTrie();
+
+    Random random = new Random(0L);
+    for (int trial = 0; trial < 100; trial++) {
+      String text = RandomTexts.newProse(random, random.nextInt(20000));
+
+      List<String> expected = referenceMatches(trie, text);
+
+      assertThat(matches(new GraphemeMatcher(trie, text)), is(expected));
+      assertThat(matches(new GraphemeMatcher(trie, new StringBuilder(text))), is(expected));
+
+      // Surround the text with chars that would change the matches if the matcher strayed outside
+      // of its region, e.g., the second half of a surrogate pair.
+      String padded = "\uD83D\uDE42" + text + "\uDE42\uD83D\uDE42";
+      char[] buffer = padded.toCharArray();
+      assertThat(matches(new GraphemeMatcher(trie, buffer, 2, text.length())), is(expected));
+      assertThat(matches(new GraphemeMatcher(trie, CharBuffer.wrap(buffer, 2, text.length()))),
+          is(expected));
+    }
+  }
+
+  private static List<String> matches(GraphemeMatcher m) {
+    List<String> result = new ArrayList<>();
+    while (m.find())
+      result.add(m.start() + ":" + m.end() + ":" + m.grapheme().getName());
+    return result;
+  }
+
+  /**
+   * The matching loop as it was before candidate scanning
+   */
+  private static List<String> referenceMatches(GraphemeTrie trie, String text) {
+    List<String> result = new ArrayList<>();
+    int index = 0;
+    while (index < text.length()) {
+      int cp0 = text.codePointAt(index);
+      int end = -1;
+      String name = null;
+      GraphemeTrie t = trie.getChild(cp0);
+      int offset = Character.charCount(cp0);
+      while (t != null) {
+        if (t.getGrapheme() != null) {
+          end = index + offset;
+          name = t.getGrapheme().getName();
+        }
+        if (index + offset >= text.length())
+          break;
+        int cpi = text.codePointAt(index + offset);
+        t = t.getChild(cpi);
+        offset = offset + Character.charCount(cpi);
+      }
+      if (end != -1) {
+        result.add(index + ":" + end + ":" + name);
+        index = end;
+      } else {
+        index = index + Character.charCount(cp0);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,131 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeMatcher;
+import com.sigpwned.emoji4j.core.Utf8GraphemeMatcher;
+import com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie;
+import com.sigpwned.emoji4j.core.trie.DefaultGraphemeTrie;
+
+public class GraphemesTest {
+  @Test
+  public void preloadAsyncTest() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Graphemes.preloadAsync(executor).get(1, TimeUnit.MINUTES);
+    } finally {
+      executor.shutdown();
+    }
+    Graphemes.preloadAsync().get(1, TimeUnit.MINUTES);
+
+    DefaultGraphemeTrie trie = Graphemes.getDefaultTrie();
+    ArrayGraphemeTrie arrayTrie = Graphemes.getDefaultArrayTrie();
+    assertThat(Graphemes.getDefaultTrie(), is(sameInstance(trie)));
+    assertThat(Graphemes.getDefaultArrayTrie(), is(sameInstance(arrayTrie)));
+
+    GraphemeMatcher m = new GraphemeMatcher("hello 🙂 world");
+    assertThat(m.find(), is(true));
+    assertThat(m.grapheme().getName(), is("slightly smiling face"));
+  }
+
+  /**
+   * A graphemes.trie that cannot be read, e.g., one from an older jar with a different format
+   * version, must be skipped so the default trie can be built from the grapheme data instead
+   */
+  @Test
+  public void badPrecompiledArrayTrieTest() throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    ArrayGraphemeTrie.fromGraphemeData(Graphemes.getGraphemeData()).writeTo(buf);
+    byte[] good = buf.toByteArray();
+
+    byte[] badVersion = good.clone();
+    badVersion[4] = (byte) (ArrayGraphemeTrie.VERSION + 1);
+    assertThat(Graphemes.getPrecompiledArrayTrie(classLoader(badVersion), "graphemes.trie"),
+        is(nullValue()));
+
+    byte[] truncated = Arrays.copyOf(good, good.length / 2);
+    assertThat(Graphemes.getPrecompiledArrayTrie(classLoader(truncated), "graphemes.trie"),
+        is(nullValue()));
+
+    assertThat(Graphemes.getPrecompiledArrayTrie(classLoader(good), "graphemes.trie").size(),
+        is(Graphemes.getDefaultArrayTrie().size()));
+    assertThat(Graphemes.getPrecompiledArrayTrie(classLoader(good), "missing.trie"),
+        is(nullValue()));
+  }
+
+  /**
+   * @return a class loader that has only the given graphemes.trie resource
+   */
+  private static ClassLoader classLoader(byte[] graphemesTrie) {
+    return new ClassLoader(null) {
+      @Override
+      public InputStream getResourceAsStream(String name) {
+        return name.equals("graphemes.trie") ? new ByteArrayInputStream(graphemesTrie) : null;
+      }
+    };
+  }
+
+  /**
+   * All of the default tries must share the same grapheme instances
+   */
+  @Test
+  public void sharedGraphemesTest() {
+    String text = "hello 🙂 world 👩🏼";
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+    GraphemeMatcher m1 = new GraphemeMatcher(Graphemes.getDefaultArrayTrie(), text);
+    GraphemeMatcher m2 = new GraphemeMatcher(Graphemes.getDefaultTrie(), text);
+    Utf8GraphemeMatcher m3 =
+        new Utf8GraphemeMatcher(Graphemes.getDefaultUtf8Trie(), bytes, 0, bytes.length);
+    for (int i = 0; i < 2; i++) {
+      assertThat(m1.find(), is(true));
+      assertThat(m2.find(), is(true));
+      assertThat(m3.find(), is(true));
+      assertThat(m2.grapheme(), is(sameInstance(m1.grapheme())));
+      assertThat(m3.grapheme(), is(sameInstance(m1.grapheme())));
+    }
+  }
+
+  @Test
+  public void queriesTest() {
+    String text = "hi 👩🏼 and ☺ and 🙂";
+    assertThat(Graphemes.containsAny(text), is(true));
+    assertThat(Graphemes.count(text), is(3));
+    assertThat(Graphemes.indexOfFirst(text), is(3));
+
+    assertThat(Graphemes.containsAny("hello world"), is(false));
+    assertThat(Graphemes.count("hello world"), is(0));
+    assertThat(Graphemes.indexOfFirst("hello world"), is(-1));
+  }
+}
@@ -0,0 +1,96 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-core
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.core.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.sigpwned.emoji4j.core.GraphemeData;
+import com.sigpwned.emoji4j.core.data.GraphemeEntry;
+import com.sigpwned.emoji4j.core.org.json.JSONException;
+import com.sigpwned.emoji4j.core.org.json.JSONObject;
+import com.sigpwned.emoji4j.core.org.json.JSONTokener;
+
+public class SerializationTest {
+  /**
+   * The streaming deserializer must read exactly the same data as the JSONObject one
+   */
+  @Test
+  public void streamingTest() throws IOException {
+    GraphemeData expected;
+    try (InputStream in =
+        Thread.currentThread().getContextClassLoader().getResourceAsStream("graphemes.json")) {
+      expected = Serialization.deserializeGraphemeData(
+          new JSONObject(new JSONTokener(new InputStreamReader(in, StandardCharsets.UTF_8))));
+    }
+
+    assertThat(Graphemes.getJsonGraphemeData(), is(expected));
+  }
+
+  @Test
+  public void streamingShapesTest() {
+    String json = "{ \"graphemes\" : [ {\"canonicalCodePointSequence\":[128578],"
+        + "\"comment\":{\"a\":[1,2,{}]},\"name\":\"slightly \\\"smiling\\\" face\","
+        + "\"type\":\"emoji\"},\n"
+        + "{\"type\":\"pictographic\",\"name\":\"smiling face\",\"canonicalCodePointSequence\":"
+        + "[9786],\"alternativeCodePointSequences\":[[9786, 65038], [ 9786 ]]},"
+        + "{\"type\":\"emoji\",\"name\":\"x\",\"canonicalCodePointSequence\":[1],"
+        + "\"alternativeCodePointSequences\":[]}],\"unicodeVersion\":\"15.0\"}";
+
+    List<GraphemeEntry> entries = new ArrayList<>();
+    String unicodeVersion = Serialization.deserializeGraphemeData(new JSONTokener(json), entries::add);
+
+    assertThat(unicodeVersion, is("15.0"));
+    assertThat(entries.size(), is(3));
+    assertThat(entries.get(0), is(GraphemeEntry.of("slightly \"smiling\" face", "emoji",
+        new int[] {128578}, new int[0][])));
+    assertThat(entries.get(1), is(GraphemeEntry.of("smiling face", "pictographic",
+        new int[] {9786}, new int[][] {{9786, 65038}, {9786}})));
+    assertThat(entries.get(2),
+        is(GraphemeEntry.of("x", "emoji", new int[] {1}, new int[0][])));
+
+    assertThat(Serialization.deserializeGraphemeData(new JSONTokener(json)),
+        is(Serialization.deserializeGraphemeData(new JSONObject(json))));
+  }
+
+  @Test(expected = JSONException.class)
+  public void streamingMissingNameTest() {
+    Serialization.deserializeGraphemeData(new JSONTokener("{\"unicodeVersion\":\"15.0\","
+        + "\"graphemes\":[{\"type\":\"emoji\",\"canonicalCodePointSequence\":[1]}]}"));
+  }
+
+  @Test(expected = JSONException.class)
+  public void streamingNotAnIntegerTest() {
+    Serialization.deserializeGraphemeData(new JSONTokener("{\"unicodeVersion\":\"15.0\","
+        + "\"graphemes\":[{\"type\":\"emoji\",\"name\":\"x\",\"canonicalCodePointSequence\":[1.5]}]}"));
+  }
+
+  @Test(expected = JSONException.class)
+  public void streamingTruncatedTest() {
+    Serialization.deserializeGraphemeData(new JSONTokener("{\"unicodeVersion\":\"15.0\","
+        + "\"graphemes\":[{\"type\":\"emoji\",\"name\":\"x\",\"canonicalCodePointSequence\":[1"));
+  }
+}
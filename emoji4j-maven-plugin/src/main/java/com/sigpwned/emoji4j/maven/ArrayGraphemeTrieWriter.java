@@ -0,0 +1,85 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-maven-plugin
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.maven;
+
+import static com.sigpwned.emoji4j.maven.GraphemeTrieLayout.name;
+import static com.sigpwned.emoji4j.maven.GraphemeTrieLayout.toArray;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes a precompiled trie over the given graphemes in the format read by emoji4j-core's
+ * {@code com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie#readFrom(InputStream)}, which documents
+ * the format.
+ * 
+ * @see GraphemeTrieLayout
+ */
+public class ArrayGraphemeTrieWriter {
+  public static final int MAGIC = 0x454D4A54;
+
+  public static final int VERSION = 2;
+
+  private final DataOutput out;
+
+  public ArrayGraphemeTrieWriter(DataOutput out) {
+    if (out == null)
+      throw new NullPointerException();
+    this.out = out;
+  }
+
+  public void write(List<GraphemeBuilder> graphemes) throws IOException {
+    GraphemeTrieLayout layout = GraphemeTrieLayout.of(graphemes);
+
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+
+    List<GraphemeBuilder> table = layout.getTable();
+    out.writeInt(table.size());
+    for (int id = 0; id < table.size(); id++) {
+      GraphemeBuilder grapheme = table.get(id);
+      int[] coordinates = toArray(grapheme.getCanonicalCodePointSequence());
+      out.writeInt(id);
+      writeString(grapheme.getType());
+      writeString(name(grapheme));
+      out.writeInt(coordinates.length);
+      writeInts(coordinates);
+    }
+
+    out.writeInt(layout.size());
+    writeInts(layout.getCodePoints());
+    writeInts(layout.getChildren());
+    writeInts(layout.getGraphemes());
+  }
+
+  private void writeString(String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF)
+      throw new IllegalArgumentException("string too long");
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeInts(int[] xs) throws IOException {
+    for (int x : xs)
+      out.writeInt(x);
+  }
+}
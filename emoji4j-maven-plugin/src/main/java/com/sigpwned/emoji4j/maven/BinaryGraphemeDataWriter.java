@@ -0,0 +1,111 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-maven-plugin
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.maven;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes graphemes in the compact binary format read by emoji4j-core's
+ * {@code com.sigpwned.emoji4j.core.util.BinarySerialization}. The two must agree exactly. The format
+ * is:
+ * 
+ * <pre>
+ * int      magic, always {@link #MAGIC}
+ * byte     format version, always {@link #VERSION}
+ * UTF      unicode version
+ * varint   string count, followed by that many UTF strings
+ * varint   grapheme count, followed by that many graphemes:
+ *   varint   type, as an index into the strings
+ *   varint   name, as an index into the strings
+ *   sequence canonical code point sequence
+ *   varint   alternative code point sequence count, followed by that many sequences
+ * </pre>
+ * 
+ * <p>
+ * Each sequence is a varint length followed by that many varint code points. Each varint is an
+ * unsigned LEB128 value.
+ */
+public class BinaryGraphemeDataWriter {
+  public static final int MAGIC = 0x454D4A34;
+
+  public static final int VERSION = 1;
+
+  private final DataOutput out;
+
+  public BinaryGraphemeDataWriter(DataOutput out) {
+    if (out == null)
+      throw new NullPointerException();
+    this.out = out;
+  }
+
+  public void write(String unicodeVersion, List<GraphemeBuilder> graphemes) throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    for (GraphemeBuilder grapheme : graphemes) {
+      strings.putIfAbsent(grapheme.getType(), strings.size());
+      strings.putIfAbsent(name(grapheme), strings.size());
+    }
+
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeUTF(unicodeVersion);
+
+    writeVarint(strings.size());
+    for (String string : strings.keySet())
+      out.writeUTF(string);
+
+    writeVarint(graphemes.size());
+    for (GraphemeBuilder grapheme : graphemes) {
+      writeVarint(strings.get(grapheme.getType()));
+      writeVarint(strings.get(name(grapheme)));
+      writeCodePointSequence(grapheme.getCanonicalCodePointSequence());
+      List<CodePointSequence> alternatives =
+          new ArrayList<>(grapheme.getAlternativeCodePointSequences());
+      writeVarint(alternatives.size());
+      for (CodePointSequence alternative : alternatives)
+        writeCodePointSequence(alternative);
+    }
+  }
+
+  /**
+   * @return the name of the given grapheme, exactly as it appears in graphemes.json
+   */
+  private static String name(GraphemeBuilder grapheme) {
+    return grapheme.getShortName().toLowerCase();
+  }
+
+  private void writeCodePointSequence(CodePointSequence cps) throws IOException {
+    writeVarint(cps.size());
+    for (CodePoint cp : cps)
+      writeVarint(cp.getValue());
+  }
+
+  private void writeVarint(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value = value >>> 7;
+    }
+    out.writeByte(value);
+  }
+}
@@ -21,6 +21,8 @@ package com.sigpwned.emoji4j.maven;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -51,7 +53,7 @@ import com.sigpwned.emoji4j.maven.unicode.DefaultUnicodeStandard;
 import com.sigpwned.emoji4j.maven.unicode.ModernUnicodeStandardResolver;
 
 /**
- * Generates the graphemes.json file used by emoji4j-core
+ * Generates the graphemes.json, graphemes.bin, and graphemes.trie files used by emoji4j-core
  */
 @Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_RESOURCES)
 public class GenerateMojo extends AbstractMojo {
@@ -79,6 +81,17 @@ public class GenerateMojo extends AbstractMojo {
   @Parameter(property = "emoji4j.target.package", defaultValue = "com.sigpwned.emojis4j")
   private String outputPackage;
 
+  /**
+   * If {@code true}, then also generate the Java source of a {@code GeneratedGraphemeTable} class in
+   * {@link #outputPackage} that holds the precompiled trie, and add it to the compile source roots.
+   */
+  @Parameter(property = "emoji4j.generateSources", defaultValue = "false")
+  private boolean generateSources;
+
+  @Parameter(property = "emoji4j.sources.directory",
+      defaultValue = "target/generated-sources/emoji4j")
+  private String sourceDirectory;
+
   public static final int EMOJI_VARIATION_MARKER = 0xFE0F;
 
   public static final int TEXT_VARIATION_MARKER = 0xFE0E;
@@ -141,6 +154,36 @@ public class GenerateMojo extends AbstractMojo {
         }
         w.endArray().endObject();
       }
+
+      // Also write the same data in a compact binary format, which is much faster to load
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(new File(outputDirectory, "graphemes.bin"))))) {
+        new BinaryGraphemeDataWriter(out).write(unicodeVersion, graphemes);
+      }
+
+      // Also write the finished trie, so the runtime can load it without building it node by node
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(new File(outputDirectory, "graphemes.trie"))))) {
+        new ArrayGraphemeTrieWriter(out).write(graphemes);
+      }
+
+      if (generateSources) {
+        File packageDirectory = new File(new File(session.getCurrentProject().getBasedir(),
+            this.sourceDirectory), outputPackage.replace('.', File.separatorChar));
+
+        packageDirectory.mkdirs();
+
+        try (Writer out = new OutputStreamWriter(
+            new FileOutputStream(
+                new File(packageDirectory, JavaGraphemeTableWriter.CLASS_NAME + ".java")),
+            StandardCharsets.UTF_8)) {
+          new JavaGraphemeTableWriter(out).write(outputPackage, unicodeVersion, graphemes);
+        }
+
+        session.getCurrentProject().addCompileSourceRoot(
+            new File(session.getCurrentProject().getBasedir(), this.sourceDirectory)
+                .getAbsolutePath());
+      }
     } catch (IOException e) {
       throw new MojoFailureException("Failed to read unicode data", e);
     }
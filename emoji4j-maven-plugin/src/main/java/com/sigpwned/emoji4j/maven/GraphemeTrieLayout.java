@@ -0,0 +1,184 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-maven-plugin
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The flat array layout of a trie over the given graphemes. This must match what emoji4j-core's
+ * {@code com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie#fromGraphemeData} would build exactly:
+ * nodes are numbered in breadth-first order, children are sorted by code point, and if the same code
+ * point sequence appears more than once, then the last grapheme wins. The table holds every given
+ * grapheme in the given order, so the index of each grapheme in the table is also its id.
+ */
+public class GraphemeTrieLayout {
+  public static GraphemeTrieLayout of(List<GraphemeBuilder> graphemes) {
+    List<Mapping> mappings = new ArrayList<>();
+    for (int i = 0; i < graphemes.size(); i++) {
+      GraphemeBuilder grapheme = graphemes.get(i);
+      mappings.add(new Mapping(toArray(grapheme.getCanonicalCodePointSequence()), i));
+      for (CodePointSequence alternative : grapheme.getAlternativeCodePointSequences())
+        mappings.add(new Mapping(toArray(alternative), i));
+    }
+
+    // Sort lexicographically. The sort is stable, so duplicate sequences keep their input order. A
+    // sequence always sorts before every sequence it prefixes, so the sequences that end at a node
+    // always come first in that node's range.
+    mappings.sort((a, b) -> compare(a.codePoints, b.codePoints));
+
+    int capacity = 1;
+    for (Mapping m : mappings)
+      capacity = capacity + m.codePoints.length;
+
+    // Each node covers the range [lo, hi) of sorted mappings, all of which share its prefix.
+    int[] los = new int[capacity];
+    int[] his = new int[capacity];
+    int[] depths = new int[capacity];
+
+    int[] codePoints = new int[capacity];
+    int[] children = new int[capacity + 1];
+    int[] nodeGraphemes = new int[capacity];
+
+    int count = 1;
+    codePoints[0] = -1;
+    los[0] = 0;
+    his[0] = mappings.size();
+    depths[0] = 0;
+    for (int node = 0; node < count; node++) {
+      int lo = los[node];
+      int hi = his[node];
+      int depth = depths[node];
+
+      nodeGraphemes[node] = -1;
+      while (lo < hi && mappings.get(lo).codePoints.length == depth) {
+        nodeGraphemes[node] = mappings.get(lo).grapheme;
+        lo = lo + 1;
+      }
+
+      children[node] = count;
+      while (lo < hi) {
+        int codePoint = mappings.get(lo).codePoints[depth];
+        int end = lo + 1;
+        while (end < hi && mappings.get(end).codePoints[depth] == codePoint)
+          end = end + 1;
+        codePoints[count] = codePoint;
+        los[count] = lo;
+        his[count] = end;
+        depths[count] = depth + 1;
+        count = count + 1;
+        lo = end;
+      }
+    }
+    children[count] = count;
+
+    return new GraphemeTrieLayout(Arrays.copyOf(codePoints, count),
+        Arrays.copyOf(children, count + 1), Arrays.copyOf(nodeGraphemes, count),
+        new ArrayList<>(graphemes));
+  }
+
+  /**
+   * The code point on the edge leading into each node, or -1 for the root
+   */
+  private final int[] codePoints;
+
+  /**
+   * The children of node {@code i} are nodes {@code children[i]} (inclusive) through
+   * {@code children[i+1]} (exclusive).
+   */
+  private final int[] children;
+
+  /**
+   * The index into {@link #table} of the grapheme at each node, or -1 if there is none.
+   */
+  private final int[] graphemes;
+
+  /**
+   * All of the graphemes, in the given order
+   */
+  private final List<GraphemeBuilder> table;
+
+  private GraphemeTrieLayout(int[] codePoints, int[] children, int[] graphemes,
+      List<GraphemeBuilder> table) {
+    this.codePoints = codePoints;
+    this.children = children;
+    this.graphemes = graphemes;
+    this.table = table;
+  }
+
+  /**
+   * @return the number of nodes, including the root
+   */
+  public int size() {
+    return codePoints.length;
+  }
+
+  public int[] getCodePoints() {
+    return codePoints;
+  }
+
+  public int[] getChildren() {
+    return children;
+  }
+
+  public int[] getGraphemes() {
+    return graphemes;
+  }
+
+  public List<GraphemeBuilder> getTable() {
+    return table;
+  }
+
+  /**
+   * @return the name of the given grapheme, exactly as it appears in graphemes.json
+   */
+  public static String name(GraphemeBuilder grapheme) {
+    return grapheme.getShortName().toLowerCase();
+  }
+
+  public static int[] toArray(CodePointSequence cps) {
+    int[] result = new int[cps.size()];
+    int index = 0;
+    for (CodePoint cp : cps)
+      result[index++] = cp.getValue();
+    return result;
+  }
+
+  private static int compare(int[] a, int[] b) {
+    int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      int result = Integer.compare(a[i], b[i]);
+      if (result != 0)
+        return result;
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  private static class Mapping {
+    public final int[] codePoints;
+    public final int grapheme;
+
+    public Mapping(int[] codePoints, int grapheme) {
+      this.codePoints = codePoints;
+      this.grapheme = grapheme;
+    }
+  }
+}
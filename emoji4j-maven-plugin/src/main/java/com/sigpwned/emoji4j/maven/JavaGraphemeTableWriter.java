@@ -0,0 +1,196 @@
+/*-
+ * =================================LICENSE_START==================================
+ * emoji4j-maven-plugin
+ * ====================================SECTION=====================================
+ * Copyright (C) 2022 Andy Boothe
+ * ====================================SECTION=====================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==================================LICENSE_END===================================
+ */
+package com.sigpwned.emoji4j.maven;
+
+import static com.sigpwned.emoji4j.maven.GraphemeTrieLayout.name;
+import static com.sigpwned.emoji4j.maven.GraphemeTrieLayout.toArray;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes a precompiled trie over the given graphemes as the Java source of a package-private
+ * {@code GeneratedGraphemeTable} class, which emoji4j-core's
+ * {@code com.sigpwned.emoji4j.core.trie.ArrayGraphemeTrie#fromGeneratedTable()} turns into a trie
+ * without any I/O or reflection. The tables are the same as in graphemes.trie.
+ * 
+ * <p>
+ * A method's bytecode may not exceed 64KB, and every array element costs several bytes of
+ * bytecode to initialize, so each table is filled in chunks of {@link #CHUNK_LENGTH} elements, one
+ * method per chunk.
+ * 
+ * @see GraphemeTrieLayout
+ */
+public class JavaGraphemeTableWriter {
+  public static final String CLASS_NAME = "GeneratedGraphemeTable";
+
+  /**
+   * The most elements initialized by any one generated method
+   */
+  public static final int CHUNK_LENGTH = 2048;
+
+  /**
+   * The most ints on any one line of generated source. Strings get a line each.
+   */
+  private static final int INTS_PER_LINE = 10;
+
+  private final Writer out;
+
+  public JavaGraphemeTableWriter(Writer out) {
+    if (out == null)
+      throw new NullPointerException();
+    this.out = out;
+  }
+
+  public void write(String packageName, String unicodeVersion, List<GraphemeBuilder> graphemes)
+      throws IOException {
+    GraphemeTrieLayout layout = GraphemeTrieLayout.of(graphemes);
+
+    List<GraphemeBuilder> table = layout.getTable();
+    String[] types = new String[table.size()];
+    String[] names = new String[table.size()];
+    int[] coordinateOffsets = new int[table.size() + 1];
+    int coordinateCount = 0;
+    for (int i = 0; i < table.size(); i++) {
+      types[i] = table.get(i).getType();
+      names[i] = name(table.get(i));
+      coordinateOffsets[i] = coordinateCount;
+      coordinateCount = coordinateCount + table.get(i).getCanonicalCodePointSequence().size();
+    }
+    coordinateOffsets[table.size()] = coordinateCount;
+    int[] coordinates = new int[coordinateCount];
+    for (int i = 0; i < table.size(); i++) {
+      int[] cps = toArray(table.get(i).getCanonicalCodePointSequence());
+      System.arraycopy(cps, 0, coordinates, coordinateOffsets[i], cps.length);
+    }
+
+    line("// Generated by emoji4j-maven-plugin. Do not edit.");
+    line("package " + packageName + ";");
+    line("");
+    line("/**");
+    line(" * The default grapheme trie for Unicode " + unicodeVersion
+        + ", in the flat layout of graphemes.trie.");
+    line(" * Each method returns a new copy of its table, so this class holds on to no memory once");
+    line(" * the trie is built.");
+    line(" */");
+    line("final class " + CLASS_NAME + " {");
+    line("  private " + CLASS_NAME + "() {}");
+    line("");
+    line("  /**");
+    line("   * Always true. The stub that emoji4j-core compiles in when the table is not");
+    line("   * generated says false.");
+    line("   */");
+    line("  static final boolean AVAILABLE = true;");
+    line("");
+    line("  static final String UNICODE_VERSION = " + literal(unicodeVersion) + ";");
+
+    table("the code point on the edge leading into each node, or -1 for the root", "codePoints",
+        layout.getCodePoints());
+    table("the index of the first child of each node, plus the node count", "children",
+        layout.getChildren());
+    table("the id of the grapheme at each node, or -1 if there is none", "graphemes",
+        layout.getGraphemes());
+    table("the type of each grapheme, by id", "types", types);
+    table("the name of each grapheme, by id", "names", names);
+    table("the offset of the first coordinate of each grapheme, plus the coordinate count",
+        "coordinateOffsets", coordinateOffsets);
+    table("the coordinates of all graphemes, one after another", "coordinates", coordinates);
+
+    line("}");
+  }
+
+  private void table(String description, String methodName, int[] values) throws IOException {
+    String[] literals = new String[values.length];
+    for (int i = 0; i < values.length; i++)
+      literals[i] = Integer.toString(values[i]);
+    table(description, methodName, "int", literals, INTS_PER_LINE);
+  }
+
+  private void table(String description, String methodName, String[] values) throws IOException {
+    String[] literals = new String[values.length];
+    for (int i = 0; i < values.length; i++)
+      literals[i] = literal(values[i]);
+    table(description, methodName, "String", literals, 1);
+  }
+
+  /**
+   * Writes a method that returns the given table, and the chunk methods that fill it in
+   */
+  private void table(String description, String methodName, String type, String[] literals,
+      int perLine) throws IOException {
+    line("");
+    line("  /**");
+    line("   * @return " + description);
+    line("   */");
+    line("  static " + type + "[] " + methodName + "() {");
+    line("    " + type + "[] result = new " + type + "[" + literals.length + "];");
+    for (int chunk = 0; chunk * CHUNK_LENGTH < literals.length; chunk++)
+      line("    " + methodName + chunk + "(result);");
+    line("    return result;");
+    line("  }");
+
+    for (int chunk = 0; chunk * CHUNK_LENGTH < literals.length; chunk++) {
+      int start = chunk * CHUNK_LENGTH;
+      int end = Math.min(start + CHUNK_LENGTH, literals.length);
+      line("");
+      line("  private static void " + methodName + chunk + "(" + type + "[] result) {");
+      line("    " + type + "[] chunk = {");
+      for (int i = start; i < end; i = i + perLine) {
+        StringBuilder buf = new StringBuilder("      ");
+        for (int j = i; j < Math.min(i + perLine, end); j++) {
+          if (j != i)
+            buf.append(' ');
+          buf.append(literals[j]).append(',');
+        }
+        line(buf.toString());
+      }
+      line("    };");
+      line("    System.arraycopy(chunk, 0, result, " + start + ", chunk.length);");
+      line("  }");
+    }
+  }
+
+  /**
+   * @return the given string as a Java string literal that is pure ASCII
+   */
+  private static String literal(String s) {
+    StringBuilder result = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i++) {
+      char ch = s.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        result.append('\\').append(ch);
+      } else if (ch == '\n') {
+        result.append("\\n");
+      } else if (ch == '\r') {
+        result.append("\\r");
+      } else if (ch < 0x20 || ch >= 0x7F) {
+        result.append(String.format("\\u%04x", (int) ch));
+      } else {
+        result.append(ch);
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  private void line(String s) throws IOException {
+    out.write(s);
+    out.write('\n');
+  }
+}